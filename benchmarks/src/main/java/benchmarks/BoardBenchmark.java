@@ -0,0 +1,52 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChessBoard copying and hashing, across the positions of one game phase.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    public PositionCorpus phase;
+
+    private List<ChessGame> games;
+
+    @Setup
+    public void setUp() {
+        games = phase.games();
+    }
+
+    @Benchmark
+    public void copy(Blackhole blackhole) {
+        for (ChessGame game : games) {
+            blackhole.consume(new ChessBoard(game.getBoard()));
+        }
+    }
+
+    @Benchmark
+    public void boardHashCode(Blackhole blackhole) {
+        for (ChessGame game : games) {
+            blackhole.consume(game.getBoard().hashCode());
+        }
+    }
+
+    @Benchmark
+    public void gameHashCode(Blackhole blackhole) {
+        for (ChessGame game : games) {
+            blackhole.consume(game.hashCode());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.engine.PieceSquareEvaluator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Static evaluation of every position of one game phase, reading the
+ * board's running piece-square sums versus adding up every piece.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    public PositionCorpus phase;
+
+    @Param({"INCREMENTAL", "RESCAN"})
+    public PieceSquareEvaluator.Mode mode;
+
+    private List<ChessGame> games;
+    private PieceSquareEvaluator evaluator;
+
+    @Setup
+    public void setUp() {
+        games = phase.games();
+        evaluator = new PieceSquareEvaluator(mode);
+    }
+
+    @Benchmark
+    public void evaluate(Blackhole blackhole) {
+        for (ChessGame game : games) {
+            blackhole.consume(evaluator.evaluate(game));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Legal move generation and game status checks, for the side to move,
+ * across the positions of one game phase.
+ * <p>
+ * The corpus is small and fixed, so after warmup everything
+ * {@link chess.LegalMoveCache} or the game's memoized status can answer is
+ * a cache hit. The {@code Cached} benchmarks go through the public methods
+ * and so measure a lookup; the {@code Uncached} ones do the work behind
+ * them every time, as the baseline benchmarks did.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    public PositionCorpus phase;
+
+    private List<ChessGame> games;
+    private final List<List<ChessPosition>> sideToMovePieces = new ArrayList<>();
+    private final MoveList moveList = new MoveList();
+
+    @Setup
+    public void setUp() {
+        games = phase.games();
+        for (ChessGame game : games) {
+            ChessBoard board = game.getBoard();
+            List<ChessPosition> positions = new ArrayList<>();
+            for (int row = 1; row <= 8; row++) {
+                for (int col = 1; col <= 8; col++) {
+                    ChessPosition position = ChessPosition.of(row, col);
+                    ChessPiece piece = board.getPiece(position);
+                    if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                        positions.add(position);
+                    }
+                }
+            }
+            sideToMovePieces.add(positions);
+        }
+    }
+
+    /**
+     * ChessGame.validMoves for every piece of the side to move, which after
+     * warmup the shared cache answers
+     */
+    @Benchmark
+    public void validMovesCached(Blackhole blackhole) {
+        for (int i = 0; i < games.size(); i++) {
+            ChessGame game = games.get(i);
+            for (ChessPosition position : sideToMovePieces.get(i)) {
+                blackhole.consume(game.validMoves(position));
+            }
+        }
+    }
+
+    /**
+     * The moves validMoves returns for every piece of the side to move,
+     * generated every time instead of taken from the cache
+     */
+    @Benchmark
+    public void validMovesUncached(Blackhole blackhole) {
+        for (int i = 0; i < games.size(); i++) {
+            ChessGame game = games.get(i);
+            for (ChessPosition position : sideToMovePieces.get(i)) {
+                MoveGenerator.legalMoves(game, ChessBoard.square(position), moveList);
+                List<ChessMove> boxed = new ArrayList<>(moveList.size());
+                for (int j = 0; j < moveList.size(); j++) {
+                    boxed.add(Move.toChessMove(moveList.get(j)));
+                }
+                blackhole.consume(boxed);
+            }
+        }
+    }
+
+    /**
+     * Every legal move of the side to move, packed into a reused list
+     */
+    @Benchmark
+    public void legalMovesPacked(Blackhole blackhole) {
+        for (ChessGame game : games) {
+            MoveGenerator.legalMoves(game.getBoard(), game.getTeamTurn(), moveList);
+            blackhole.consume(moveList.size());
+        }
+    }
+
+    @Benchmark
+    public void isInCheck(Blackhole blackhole) {
+        for (ChessGame game : games) {
+            blackhole.consume(game.isInCheck(game.getTeamTurn()));
+        }
+    }
+
+    /**
+     * ChessGame.isInCheckmate for the side to move, answered by the memoized status
+     */
+    @Benchmark
+    public void isInCheckmateCached(Blackhole blackhole) {
+        for (ChessGame game : games) {
+            blackhole.consume(game.isInCheckmate(game.getTeamTurn()));
+        }
+    }
+
+    /**
+     * ChessGame.isInStalemate for the side to move, answered by the memoized status
+     */
+    @Benchmark
+    public void isInStalemateCached(Blackhole blackhole) {
+        for (ChessGame game : games) {
+            blackhole.consume(game.isInStalemate(game.getTeamTurn()));
+        }
+    }
+
+    /**
+     * The work behind isInCheckmate and isInStalemate for the side to move,
+     * done every time instead of taken from the memoized status
+     */
+    @Benchmark
+    public void statusUncached(Blackhole blackhole) {
+        for (ChessGame game : games) {
+            blackhole.consume(game.computeStatus());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pseudo-legal move generation ({@link ChessPiece#pieceMoves}) for every
+ * piece of one type, across the positions of one game phase.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceMovesBenchmark {
+
+    @Param({"KING", "QUEEN", "BISHOP", "KNIGHT", "ROOK", "PAWN"})
+    public ChessPiece.PieceType type;
+
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    public PositionCorpus phase;
+
+    private final List<ChessBoard> boards = new ArrayList<>();
+    private final List<ChessPosition> positions = new ArrayList<>();
+    private final List<ChessPiece> pieces = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        for (ChessGame game : phase.games()) {
+            ChessBoard board = game.getBoard();
+            for (int row = 1; row <= 8; row++) {
+                for (int col = 1; col <= 8; col++) {
+                    ChessPosition position = ChessPosition.of(row, col);
+                    ChessPiece piece = board.getPiece(position);
+                    if (piece != null && piece.getPieceType() == type) {
+                        boards.add(board);
+                        positions.add(position);
+                        pieces.add(piece);
+                    }
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void pieceMoves(Blackhole blackhole) {
+        for (int i = 0; i < pieces.size(); i++) {
+            blackhole.consume(pieces.get(i).pieceMoves(boards.get(i), positions.get(i)));
+        }
+    }
+}
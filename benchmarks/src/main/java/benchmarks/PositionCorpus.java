@@ -0,0 +1,46 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.Fen;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Positions the benchmarks run over, grouped by game phase so a change
+ * that only helps (or hurts) crowded or sparse boards shows up.
+ */
+public enum PositionCorpus {
+    OPENING(
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3",
+            "rnbqkb1r/pp2pppp/3p1n2/8/3NP3/8/PPP2PPP/RNBQKB1R w KQkq - 1 5",
+            "rnbqkb1r/ppp1pppp/5n2/3p4/2PP4/8/PP2PPPP/RNBQKBNR w KQkq - 1 3"),
+    MIDDLEGAME(
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "2rq1rk1/pp1bbppp/2n1pn2/3p4/3P4/2PBPN2/PP1N1PPP/R2QR1K1 w - - 4 11",
+            "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP3PPP/R2QKB1R w KQ - 0 8"),
+    ENDGAME(
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "8/8/4k3/3p4/3P4/4K3/8/8 w - - 0 1",
+            "6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1",
+            "8/5p1k/6p1/8/3Q4/6P1/5PK1/q7 w - - 0 40");
+
+    private final String[] fens;
+
+    PositionCorpus(String... fens) {
+        this.fens = fens;
+    }
+
+    /**
+     * @return a freshly parsed game for every position in this phase
+     */
+    public List<ChessGame> games() {
+        List<ChessGame> games = new ArrayList<>();
+        for (String fen : fens) {
+            games.add(Fen.parse(fen));
+        }
+        return games;
+    }
+}
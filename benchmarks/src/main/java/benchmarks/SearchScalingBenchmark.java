@@ -0,0 +1,63 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.engine.LazySmpSearch;
+import chess.engine.PieceSquareEvaluator;
+import chess.engine.TranspositionTable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to reach a fixed depth with the Lazy SMP search, per thread count,
+ * over the middlegame positions. Compare the scores across thread counts
+ * for the speedup; override the counts with e.g. {@code -p threads=1,8,32}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SearchScalingBenchmark {
+    private static final int HASH_MB = 64;
+    // well beyond the time any depth here takes, so only the depth limit stops the search
+    private static final long NO_TIME_LIMIT = 600_000;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int threads;
+
+    @Param({"7"})
+    public int depth;
+
+    private List<ChessGame> games;
+    private LazySmpSearch search;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        games = PositionCorpus.MIDDLEGAME.games();
+        search = new LazySmpSearch(threads, PieceSquareEvaluator::new, new TranspositionTable(HASH_MB));
+    }
+
+    /**
+     * Each run starts from an empty table, so it can't coast on the previous one
+     */
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        search.getTable().clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        search.close();
+    }
+
+    @Benchmark
+    public void timeToDepth(Blackhole blackhole) {
+        for (ChessGame game : games) {
+            blackhole.consume(search.search(game, depth, NO_TIME_LIMIT));
+        }
+    }
+}
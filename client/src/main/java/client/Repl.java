@@ -290,6 +290,7 @@ public class Repl implements NotificationHandler {
                 case "leave" -> leaveHandler();
                 case "move" -> makeMoveHandler(args);
                 case "resign" -> resignHandler();
+                case "claim" -> claimDrawHandler();
                 case "highlight" -> highlightHandler(args);
                 default -> "Unknown command. Type 'help' for options.";
             };
@@ -333,6 +334,14 @@ public class Repl implements NotificationHandler {
     }
 
 
+    private String claimDrawHandler() throws ResponseException {
+        UserGameCommand command = new UserGameCommand(UserGameCommand.CommandType.CLAIM_DRAW, authToken, currentGameID);
+        ws.sendCommand(command);
+
+        return "";
+    }
+
+
     private String makeMoveHandler(String[] args) throws ResponseException {
         if (args.length < 3) {
             return "Error: Invalid move. Usage: move <START> <END> [PROMOTION]";
@@ -408,7 +417,7 @@ public class Repl implements NotificationHandler {
                 return null;
             }
 
-            return new ChessPosition(row, col);
+            return ChessPosition.of(row, col);
         } catch (Exception e) {
             return null;
         }
@@ -69,7 +69,7 @@ public class BoardPrinter {
             int colIncrement = (startRow == 8) ? 1 : -1;
 
             for (int col = colStart; col != colEnd; col += colIncrement) {
-                ChessPosition currentPos = new ChessPosition(row, col);
+                ChessPosition currentPos = ChessPosition.of(row, col);
 
                 boolean isLightSquare = (row + col) % 2 != 0;
                 String bgColor;
@@ -86,6 +86,7 @@ public class ClientDisplay {
                         "%s  leave%s %s: Removes you from the game%n" +
                         "%s  move <START> <END> [PROMOTION]%s %s: Make a move (e.g., 'move e2 e4')%n" +
                         "%s  resign%s %s: Forfeit the game%n" +
+                        "%s  claim%s %s: Claim a draw by the fifty-move rule or threefold repetition%n" +
                         "%s  highlight%s %s: Highlight legal moves for a piece%n" +
                         "%s  help%s %s: Show this message%s%n",
                 SET_TEXT_BOLD + SET_TEXT_COLOR_BLUE, RESET_TEXT_BOLD_FAINT + RESET_TEXT_COLOR,
@@ -98,6 +99,8 @@ public class ClientDisplay {
                 SET_TEXT_ITALIC + SET_TEXT_COLOR_MAGENTA,
                 SET_TEXT_BOLD + SET_TEXT_COLOR_BLUE, RESET_TEXT_BOLD_FAINT + RESET_TEXT_COLOR,
                 SET_TEXT_ITALIC + SET_TEXT_COLOR_MAGENTA,
+                SET_TEXT_BOLD + SET_TEXT_COLOR_BLUE, RESET_TEXT_BOLD_FAINT + RESET_TEXT_COLOR,
+                SET_TEXT_ITALIC + SET_TEXT_COLOR_MAGENTA,
                 SET_TEXT_BOLD + SET_TEXT_COLOR_BLUE,
                 RESET_TEXT_BOLD_FAINT + RESET_TEXT_COLOR,
                 SET_TEXT_ITALIC + SET_TEXT_COLOR_MAGENTA,
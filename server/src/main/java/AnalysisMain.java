@@ -0,0 +1,77 @@
+import dataaccess.DataAccessException;
+import dataaccess.SQLAnalysisDataAccess;
+import service.AnalysisJob;
+import service.EnginePool;
+import service.GameAnalyzer;
+
+/**
+ * Runs the offline analysis job over the games in the database.
+ * Options: {@code --threads=N} (engine threads, default every core),
+ * {@code --depth=N} and {@code --time=MS} (search limits per position),
+ * {@code --job=NAME} (checkpoint to resume from) and {@code --restart}
+ * (ignore the checkpoint and look at every game again).
+ */
+public class AnalysisMain {
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int depth = GameAnalyzer.DEFAULT_DEPTH;
+        long timeMillis = GameAnalyzer.DEFAULT_MILLIS;
+        String job = AnalysisJob.DEFAULT_NAME;
+        boolean restart = false;
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--threads=")) {
+                    threads = Integer.parseInt(arg.substring("--threads=".length()));
+                } else if (arg.startsWith("--depth=")) {
+                    depth = Integer.parseInt(arg.substring("--depth=".length()));
+                } else if (arg.startsWith("--time=")) {
+                    timeMillis = Long.parseLong(arg.substring("--time=".length()));
+                } else if (arg.startsWith("--job=")) {
+                    job = arg.substring("--job=".length());
+                } else if (arg.equals("--restart")) {
+                    restart = true;
+                } else {
+                    usage();
+                    return;
+                }
+            }
+        } catch (NumberFormatException e) {
+            usage();
+            return;
+        }
+
+        SQLAnalysisDataAccess dataAccess;
+        try {
+            dataAccess = new SQLAnalysisDataAccess();
+            if (restart) {
+                dataAccess.saveCheckpoint(job, 0);
+            }
+        } catch (DataAccessException e) {
+            System.err.println("Database unavailable: " + e.getMessage());
+            return;
+        }
+
+        // a few games queued per thread keeps every thread busy while the reader fetches the next page
+        int inFlight = threads * 4;
+        EnginePool pool = new EnginePool(threads, inFlight);
+        AnalysisJob analysisJob = new AnalysisJob(dataAccess,
+                new GameAnalyzer(depth, timeMillis, GameAnalyzer.DEFAULT_BLUNDER_LOSS), pool, job, inFlight);
+        System.out.printf("analyzing with %d threads, depth %d, %d ms per position%n", threads, depth, timeMillis);
+        AnalysisJob.Stats stats = analysisJob.run(AnalysisMain::report);
+        pool.shutdown();
+        System.out.print("done: ");
+        report(stats);
+    }
+
+    private static void report(AnalysisJob.Stats stats) {
+        System.out.printf("%d games (%d failed), %d moves in %.1f s, %.1f games/min%n", stats.games(),
+                stats.failed(), stats.moves(), stats.millis() / 1000.0, stats.gamesPerMinute());
+    }
+
+    private static void usage() {
+        System.out.println("""
+                Usage: AnalysisMain [options]
+                Options: --threads=N (default all cores) --depth=N (default 6) --time=MS (default 1000)
+                         --job=NAME (default "default") --restart""");
+    }
+}
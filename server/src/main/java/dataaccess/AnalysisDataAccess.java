@@ -0,0 +1,35 @@
+package dataaccess;
+
+import model.GameAnalysis;
+import model.GameData;
+
+import java.util.List;
+
+/**
+ * Storage for the engine's analysis of finished games, and for the
+ * checkpoints that let an analysis job pick up where it stopped
+ */
+public interface AnalysisDataAccess {
+    /**
+     * @param afterGameID only games with a larger id are returned
+     * @param limit       most games to return
+     * @return games that have no analysis yet, in order of id
+     */
+    List<GameData> gamesToAnalyze(int afterGameID, int limit) throws DataAccessException;
+
+    /**
+     * Stores the analysis of a game, replacing any earlier analysis of it
+     */
+    void saveAnalysis(GameAnalysis analysis) throws DataAccessException;
+
+    /**
+     * @return the game's analysis, or null if it hasn't been analyzed
+     */
+    GameAnalysis getAnalysis(int gameID) throws DataAccessException;
+
+    /**
+     * @return id of the last game the job is known to have finished, 0 if it never ran
+     */
+    int getCheckpoint(String job) throws DataAccessException;
+    void saveCheckpoint(String job, int lastGameID) throws DataAccessException;
+}
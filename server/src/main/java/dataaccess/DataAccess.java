@@ -17,6 +17,20 @@ public interface DataAccess {
     Collection<GameData> listGames() throws DataAccessException;
     void updateGame(int gameID, GameData gameData) throws DataAccessException;
 
+    /**
+     * Records that the bot plays in a game, and how long it may think per move
+     */
+    void setBotThinkMillis(int gameID, long thinkMillis) throws DataAccessException;
+    /**
+     * @return the bot's think time in the game, or null if the bot doesn't play in it
+     */
+    Long getBotThinkMillis(int gameID) throws DataAccessException;
+    void deleteBotThinkMillis(int gameID) throws DataAccessException;
+    /**
+     * @return ids of the games the bot plays in
+     */
+    Collection<Integer> listBotGames() throws DataAccessException;
+
     AuthData createAuth(String username) throws DataAccessException;
     AuthData getAuth(String authToken) throws DataAccessException;
     void deleteAuth(String authToken) throws DataAccessException;
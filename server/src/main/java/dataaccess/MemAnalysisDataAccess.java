@@ -0,0 +1,53 @@
+package dataaccess;
+
+import model.GameAnalysis;
+import model.GameData;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Keeps analysis in memory, next to the games of another {@link DataAccess}
+ */
+public class MemAnalysisDataAccess implements AnalysisDataAccess {
+    private final DataAccess games;
+    private final HashMap<Integer, GameAnalysis> analyses = new HashMap<>();
+    private final HashMap<String, Integer> checkpoints = new HashMap<>();
+
+    public MemAnalysisDataAccess(DataAccess games) {
+        this.games = games;
+    }
+
+    @Override
+    public synchronized List<GameData> gamesToAnalyze(int afterGameID, int limit) throws DataAccessException {
+        List<GameData> found = new ArrayList<>();
+        games.listGames().stream()
+                .filter(game -> game.gameID() > afterGameID && !analyses.containsKey(game.gameID()))
+                .sorted(Comparator.comparingInt(GameData::gameID))
+                .limit(limit)
+                .forEach(found::add);
+        return found;
+    }
+
+    @Override
+    public synchronized void saveAnalysis(GameAnalysis analysis) throws DataAccessException {
+        analyses.put(analysis.gameID(), analysis);
+    }
+
+    @Override
+    public synchronized GameAnalysis getAnalysis(int gameID) throws DataAccessException {
+        return analyses.get(gameID);
+    }
+
+    @Override
+    public synchronized int getCheckpoint(String job) throws DataAccessException {
+        return checkpoints.getOrDefault(job, 0);
+    }
+
+    @Override
+    public synchronized void saveCheckpoint(String job, int lastGameID) throws DataAccessException {
+        checkpoints.put(job, lastGameID);
+    }
+}
@@ -5,6 +5,7 @@ import model.AuthData;
 import model.GameData;
 import model.UserData;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.UUID;
@@ -13,6 +14,7 @@ public class MemDataAcess implements DataAccess {
     private final HashMap<String, UserData> users = new HashMap<>();
     private final HashMap<Integer, GameData> games = new HashMap<>();
     private final HashMap<String, AuthData> auths = new HashMap<>();
+    private final HashMap<Integer, Long> botThinkMillis = new HashMap<>();
     private int nextGameID = 1;
 
     @Override
@@ -20,6 +22,7 @@ public class MemDataAcess implements DataAccess {
         users.clear();
         games.clear();
         auths.clear();
+        botThinkMillis.clear();
     }
 
     @Override
@@ -71,6 +74,26 @@ public class MemDataAcess implements DataAccess {
         }
     }
 
+    @Override
+    public void setBotThinkMillis(int gameID, long thinkMillis) throws DataAccessException {
+        botThinkMillis.put(gameID, thinkMillis);
+    }
+
+    @Override
+    public Long getBotThinkMillis(int gameID) throws DataAccessException {
+        return botThinkMillis.get(gameID);
+    }
+
+    @Override
+    public void deleteBotThinkMillis(int gameID) throws DataAccessException {
+        botThinkMillis.remove(gameID);
+    }
+
+    @Override
+    public Collection<Integer> listBotGames() throws DataAccessException {
+        return new ArrayList<>(botThinkMillis.keySet());
+    }
+
     @Override
     public AuthData createAuth(String username) throws DataAccessException {
         String authToken =  UUID.randomUUID().toString();
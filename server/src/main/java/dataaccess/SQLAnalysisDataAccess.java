@@ -0,0 +1,177 @@
+package dataaccess;
+
+import chess.ChessGame;
+import com.google.gson.Gson;
+import model.GameAnalysis;
+import model.GameData;
+import model.MoveAnalysis;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Analysis tables in MySQL: one row per analyzed move in {@code move_analysis},
+ * one summary row per game in {@code game_analysis}, and a row per job in
+ * {@code analysis_checkpoint}
+ */
+public class SQLAnalysisDataAccess implements AnalysisDataAccess {
+    private final Gson gson = new Gson();
+
+    public SQLAnalysisDataAccess() throws DataAccessException {
+        SQLDataAccess.configureDatabase();
+    }
+
+    @Override
+    public List<GameData> gamesToAnalyze(int afterGameID, int limit) throws DataAccessException {
+        // keyset paging on the primary key, so each page costs the same however far the job has got
+        var sqlSt = """
+                SELECT g.gameID, g.whiteUsername, g.blackUsername, g.gameName, g.gameData FROM game g
+                WHERE g.gameID > ? AND NOT EXISTS (SELECT 1 FROM game_analysis a WHERE a.gameID = g.gameID)
+                ORDER BY g.gameID LIMIT ?;""";
+
+        List<GameData> games = new ArrayList<>();
+        try (var conn = DatabaseManager.getConnection()) {
+            try (var st = conn.prepareStatement(sqlSt)) {
+                st.setInt(1, afterGameID);
+                st.setInt(2, limit);
+                try (var rs = st.executeQuery()) {
+                    while (rs.next()) {
+                        ChessGame game = gson.fromJson(rs.getString("gameData"), ChessGame.class);
+                        games.add(new GameData(rs.getInt("gameID"), rs.getString("whiteUsername"),
+                                rs.getString("blackUsername"), rs.getString("gameName"), game));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(e.getMessage());
+        }
+        return games;
+    }
+
+    @Override
+    public void saveAnalysis(GameAnalysis analysis) throws DataAccessException {
+        var deleteMovesSt = "DELETE FROM move_analysis WHERE gameID = ?;";
+        var insertMoveSt = """
+                INSERT INTO move_analysis (gameID, ply, move, bestMove, scoreBefore, scoreAfter, loss, accuracy, blunder)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?);""";
+        var replaceGameSt = """
+                REPLACE INTO game_analysis (gameID, whiteAccuracy, blackAccuracy, whiteBlunders, blackBlunders)
+                VALUES (?, ?, ?, ?, ?);""";
+
+        try (var conn = DatabaseManager.getConnection()) {
+            // the summary row marks the game as done, so it goes in together with the moves or not at all
+            conn.setAutoCommit(false);
+            try {
+                try (var st = conn.prepareStatement(deleteMovesSt)) {
+                    st.setInt(1, analysis.gameID());
+                    st.executeUpdate();
+                }
+                try (var st = conn.prepareStatement(insertMoveSt)) {
+                    for (MoveAnalysis move : analysis.moves()) {
+                        st.setInt(1, analysis.gameID());
+                        st.setInt(2, move.ply());
+                        st.setString(3, move.move());
+                        st.setString(4, move.bestMove());
+                        st.setInt(5, move.scoreBefore());
+                        st.setInt(6, move.scoreAfter());
+                        st.setInt(7, move.loss());
+                        st.setDouble(8, move.accuracy());
+                        st.setBoolean(9, move.blunder());
+                        st.addBatch();
+                    }
+                    st.executeBatch();
+                }
+                try (var st = conn.prepareStatement(replaceGameSt)) {
+                    st.setInt(1, analysis.gameID());
+                    st.setDouble(2, analysis.whiteAccuracy());
+                    st.setDouble(3, analysis.blackAccuracy());
+                    st.setInt(4, analysis.whiteBlunders());
+                    st.setInt(5, analysis.blackBlunders());
+                    st.executeUpdate();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                rollback(conn);
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to save analysis: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public GameAnalysis getAnalysis(int gameID) throws DataAccessException {
+        var gameSt = "SELECT * FROM game_analysis WHERE gameID = ?;";
+        var movesSt = "SELECT * FROM move_analysis WHERE gameID = ? ORDER BY ply;";
+
+        try (var conn = DatabaseManager.getConnection()) {
+            List<MoveAnalysis> moves = new ArrayList<>();
+            try (var st = conn.prepareStatement(movesSt)) {
+                st.setInt(1, gameID);
+                try (var rs = st.executeQuery()) {
+                    while (rs.next()) {
+                        moves.add(new MoveAnalysis(rs.getInt("ply"), rs.getString("move"), rs.getString("bestMove"),
+                                rs.getInt("scoreBefore"), rs.getInt("scoreAfter"), rs.getInt("loss"),
+                                rs.getDouble("accuracy"), rs.getBoolean("blunder")));
+                    }
+                }
+            }
+            try (var st = conn.prepareStatement(gameSt)) {
+                st.setInt(1, gameID);
+                try (var rs = st.executeQuery()) {
+                    if (rs.next()) {
+                        return new GameAnalysis(gameID, moves, rs.getDouble("whiteAccuracy"),
+                                rs.getDouble("blackAccuracy"), rs.getInt("whiteBlunders"), rs.getInt("blackBlunders"));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(e.getMessage());
+        }
+        return null;
+    }
+
+    @Override
+    public int getCheckpoint(String job) throws DataAccessException {
+        var sqlSt = "SELECT lastGameID FROM analysis_checkpoint WHERE job = ?;";
+
+        try (var conn = DatabaseManager.getConnection()) {
+            try (var st = conn.prepareStatement(sqlSt)) {
+                st.setString(1, job);
+                try (var rs = st.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getInt("lastGameID");
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(e.getMessage());
+        }
+        return 0;
+    }
+
+    @Override
+    public void saveCheckpoint(String job, int lastGameID) throws DataAccessException {
+        var sqlSt = "REPLACE INTO analysis_checkpoint (job, lastGameID) VALUES (?, ?);";
+
+        try (var conn = DatabaseManager.getConnection()) {
+            try (var st = conn.prepareStatement(sqlSt)) {
+                st.setString(1, job);
+                st.setInt(2, lastGameID);
+                st.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to save checkpoint: " + e.getMessage());
+        }
+    }
+
+    private static void rollback(Connection conn) {
+        try {
+            conn.rollback();
+        } catch (SQLException ignored) {
+            // the original failure is the one worth reporting
+        }
+    }
+}
@@ -20,7 +20,10 @@ public class SQLDataAccess implements DataAccess {
         configureDatabase();
     }
 
-    private void configureDatabase() throws DataAccessException {
+    /**
+     * Creates the database and every table, including the bot and analysis tables, if they don't exist yet
+     */
+    static void configureDatabase() throws DataAccessException {
         DatabaseManager.createDatabase();
 
         final String createUserTable = """
@@ -42,12 +45,47 @@ public class SQLDataAccess implements DataAccess {
                     gameName VARCHAR(255) NOT NULL,
                     gameData TEXT NOT NULL
                 )""";
+        final String createBotGameTable = """
+                CREATE TABLE IF NOT EXISTS bot_game (
+                    gameID INT NOT NULL PRIMARY KEY,
+                    thinkMillis BIGINT NOT NULL
+                )""";
+        final String createMoveAnalysisTable = """
+                CREATE TABLE IF NOT EXISTS move_analysis (
+                    gameID INT NOT NULL,
+                    ply INT NOT NULL,
+                    move VARCHAR(8) NOT NULL,
+                    bestMove VARCHAR(8),
+                    scoreBefore INT NOT NULL,
+                    scoreAfter INT NOT NULL,
+                    loss INT NOT NULL,
+                    accuracy DOUBLE NOT NULL,
+                    blunder BOOLEAN NOT NULL,
+                    PRIMARY KEY (gameID, ply)
+                )""";
+        final String createGameAnalysisTable = """
+                CREATE TABLE IF NOT EXISTS game_analysis (
+                    gameID INT NOT NULL PRIMARY KEY,
+                    whiteAccuracy DOUBLE NOT NULL,
+                    blackAccuracy DOUBLE NOT NULL,
+                    whiteBlunders INT NOT NULL,
+                    blackBlunders INT NOT NULL
+                )""";
+        final String createCheckpointTable = """
+                CREATE TABLE IF NOT EXISTS analysis_checkpoint (
+                    job VARCHAR(64) NOT NULL PRIMARY KEY,
+                    lastGameID INT NOT NULL
+                )""";
 
         try (var conn = DatabaseManager.getConnection()) {
             try (var statement = conn.createStatement()) {
                 statement.executeUpdate(createUserTable);
                 statement.executeUpdate(createAuthTable);
                 statement.executeUpdate(createGameTable);
+                statement.executeUpdate(createBotGameTable);
+                statement.executeUpdate(createMoveAnalysisTable);
+                statement.executeUpdate(createGameAnalysisTable);
+                statement.executeUpdate(createCheckpointTable);
             }
         } catch (SQLException e) {
             throw new DataAccessException("Failed to configure database: " + e.getMessage());
@@ -60,11 +98,20 @@ public class SQLDataAccess implements DataAccess {
             String clearUserSt = "TRUNCATE TABLE user;";
             String clearAuthSt = "TRUNCATE TABLE auth;";
             String clearGameSt = "TRUNCATE TABLE game;";
+            String clearBotGameSt = "TRUNCATE TABLE bot_game;";
+            // game ids start over, so analysis of the old games must go with them
+            String clearMoveAnalysisSt = "TRUNCATE TABLE move_analysis;";
+            String clearGameAnalysisSt = "TRUNCATE TABLE game_analysis;";
+            String clearCheckpointSt = "TRUNCATE TABLE analysis_checkpoint;";
 
             try (var clearStatements = conn.createStatement()) {
                 clearStatements.execute(clearAuthSt);
                 clearStatements.execute(clearGameSt);
+                clearStatements.execute(clearBotGameSt);
                 clearStatements.execute(clearUserSt);
+                clearStatements.execute(clearMoveAnalysisSt);
+                clearStatements.execute(clearGameAnalysisSt);
+                clearStatements.execute(clearCheckpointSt);
             } catch (SQLException e) {
                 throw new DataAccessException("Failed to clear database: " + e.getMessage());
             }
@@ -219,6 +266,74 @@ public class SQLDataAccess implements DataAccess {
         }
     }
 
+    @Override
+    public void setBotThinkMillis(int gameID, long thinkMillis) throws DataAccessException {
+        var sqlSt = "INSERT INTO bot_game (gameID, thinkMillis) VALUES (?, ?) "
+                + "ON DUPLICATE KEY UPDATE thinkMillis = VALUES(thinkMillis);";
+
+        try (var conn = DatabaseManager.getConnection()) {
+            try (var st = conn.prepareStatement(sqlSt)) {
+                st.setInt(1, gameID);
+                st.setLong(2, thinkMillis);
+                st.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    @Override
+    public Long getBotThinkMillis(int gameID) throws DataAccessException {
+        var sqlSt = "SELECT thinkMillis FROM bot_game WHERE gameID = ?;";
+
+        try (var conn = DatabaseManager.getConnection()) {
+            try (var st = conn.prepareStatement(sqlSt)) {
+                st.setInt(1, gameID);
+                try (var rs = st.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getLong("thinkMillis");
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(e.getMessage());
+        }
+        return null;
+    }
+
+    @Override
+    public void deleteBotThinkMillis(int gameID) throws DataAccessException {
+        var sqlSt = "DELETE FROM bot_game WHERE gameID = ?;";
+
+        try (var conn = DatabaseManager.getConnection()) {
+            try (var st = conn.prepareStatement(sqlSt)) {
+                st.setInt(1, gameID);
+                st.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    @Override
+    public Collection<Integer> listBotGames() throws DataAccessException {
+        var sqlSt = "SELECT gameID FROM bot_game ORDER BY gameID;";
+
+        Collection<Integer> gameIDs = new ArrayList<>();
+        try (var conn = DatabaseManager.getConnection()) {
+            try (var st = conn.prepareStatement(sqlSt)) {
+                try (var rs = st.executeQuery()) {
+                    while (rs.next()) {
+                        gameIDs.add(rs.getInt("gameID"));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(e.getMessage());
+        }
+        return gameIDs;
+    }
+
     @Override
     public AuthData createAuth(String username) throws DataAccessException {
         var sqlSt = "INSERT INTO auth (username, authToken) VALUES (?, ?);";
@@ -1,28 +1,47 @@
 package server;
 
+import chess.engine.OpeningBook;
+import chess.tablebase.Tablebases;
 import com.google.gson.Gson;
 import dataaccess.DataAccess;
 import dataaccess.DataAccessException;
 import dataaccess.SQLDataAccess;
 import io.javalin.*;
 import io.javalin.http.Context;
+import io.javalin.validation.ValidationException;
 import model.AuthData;
 import model.GameData;
+import model.PositionAnalysis;
 import model.UserData;
 import org.jetbrains.annotations.NotNull;
 import server.websocket.WebSocketHandler;
+import service.AnalysisService;
+import service.BotService;
 import service.ClearService;
+import service.EnginePool;
 import service.GameService;
+import servicehelpers.AddBotRequest;
+import servicehelpers.AnalyzeRequest;
 import servicehelpers.CreateGameRequest;
 import servicehelpers.GameResult;
 import servicehelpers.JoinGameRequest;
 import servicehelpers.LoginRequest;
 import service.UserService;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 public class Server {
+    // book file, relative to the working directory unless the chess.book system property says otherwise
+    private static final String DEFAULT_BOOK = "opening-book.bin";
+    // likewise for the endgame tables and the chess.tablebases property
+    private static final String DEFAULT_TABLEBASES = "tablebases";
 
     private final Javalin javalin;
     private WebSocketHandler webSocketHandler;
@@ -32,6 +51,10 @@ public class Server {
     private UserService userService;
     private GameService gameService;
     private ClearService clearService;
+    private BotService botService;
+    private AnalysisService analysisService;
+    private final EnginePool enginePool = new EnginePool(loadTablebases());
+    private final OpeningBook openingBook = loadOpeningBook();
 
     public Server() {
         javalin = Javalin.create(config -> config.staticFiles.add("web"));
@@ -41,8 +64,12 @@ public class Server {
             this.userService = new UserService(dataAccess);
             this.gameService = new GameService(dataAccess);
             this.clearService = new ClearService(dataAccess);
+            this.botService = new BotService(dataAccess, gameService, enginePool, openingBook);
+            this.analysisService = new AnalysisService(gameService, enginePool);
 
-            this.webSocketHandler = new WebSocketHandler(userService, gameService);
+            this.webSocketHandler = new WebSocketHandler(userService, gameService, botService);
+            // after the handler, which passes the bot's moves on to the players
+            botService.resumeGames();
 
         } catch (DataAccessException e) {
             System.err.println("FATAL: Failed to initialize database connection.");
@@ -50,6 +77,8 @@ public class Server {
             this.userService = null;
             this.gameService = null;
             this.clearService = null;
+            this.botService = null;
+            this.analysisService = null;
             this.webSocketHandler = null;
         }
 
@@ -60,6 +89,8 @@ public class Server {
         javalin.get("/game", this::listGamesHandler);
         javalin.post("/game", this::createGameHandler);
         javalin.put("/game", this::joinGameHandler);
+        javalin.put("/game/bot", this::addBotHandler);
+        javalin.get("/game/analysis", this::analysisHandler);
 
         javalin.ws("/ws", ws -> {
             ws.onConnect(ctx -> {
@@ -82,6 +113,43 @@ public class Server {
 
     public void stop() {
         javalin.stop();
+        enginePool.shutdown();
+    }
+
+    /**
+     * Maps the book if there is one; the server runs without one otherwise
+     */
+    private static OpeningBook loadOpeningBook() {
+        Path path = Path.of(System.getProperty("chess.book", DEFAULT_BOOK));
+        if (!Files.exists(path)) {
+            return OpeningBook.empty();
+        }
+        try {
+            OpeningBook book = OpeningBook.open(path);
+            System.out.printf("Opening book %s: %d entries%n", path, book.size());
+            return book;
+        } catch (IOException e) {
+            System.err.println("Failed to open opening book: " + e.getMessage());
+            return OpeningBook.empty();
+        }
+    }
+
+    /**
+     * Maps the endgame tables if there are any; the engine searches endgames without them otherwise
+     */
+    private static Tablebases loadTablebases() {
+        Path dir = Path.of(System.getProperty("chess.tablebases", DEFAULT_TABLEBASES));
+        if (!Files.isDirectory(dir)) {
+            return Tablebases.empty();
+        }
+        try {
+            Tablebases tablebases = Tablebases.open(dir);
+            System.out.printf("Tablebases %s: %s%n", dir, tablebases.getMaterials());
+            return tablebases;
+        } catch (IOException e) {
+            System.err.println("Failed to open tablebases: " + e.getMessage());
+            return Tablebases.empty();
+        }
     }
 
     private void handleDataAccessException(DataAccessException e, Context ctx) {
@@ -161,4 +229,50 @@ public class Server {
         ctx.status(200);
         ctx.result(gson.toJson((Map.of())));
     }
+
+    private void addBotHandler(@NotNull Context ctx) throws DataAccessException {
+        String authToken = ctx.header("Authorization");
+        AddBotRequest addBotRequest = gson.fromJson(ctx.body(), AddBotRequest.class);
+
+        botService.addBot(authToken, addBotRequest);
+
+        ctx.status(200);
+        ctx.result(gson.toJson((Map.of())));
+    }
+
+    /**
+     * Query parameters: gameID or fen, and optionally lines, depth and timeMillis.
+     * The search runs on the engine pool; the request thread is let go meanwhile.
+     */
+    private void analysisHandler(@NotNull Context ctx) throws DataAccessException {
+        String authToken = ctx.header("Authorization");
+        AnalyzeRequest analyzeRequest;
+        try {
+            analyzeRequest = new AnalyzeRequest(
+                    ctx.queryParamAsClass("gameID", Integer.class).allowNullable().get(),
+                    ctx.queryParam("fen"),
+                    ctx.queryParamAsClass("lines", Integer.class).allowNullable().get(),
+                    ctx.queryParamAsClass("depth", Integer.class).allowNullable().get(),
+                    ctx.queryParamAsClass("timeMillis", Long.class).allowNullable().get());
+        } catch (ValidationException e) {
+            throw new DataAccessException("bad request");
+        }
+
+        CompletableFuture<PositionAnalysis> analysis = analysisService.analyze(authToken, analyzeRequest);
+
+        ctx.future(() -> analysis.handle((result, error) -> {
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            if (cause instanceof RejectedExecutionException) {
+                ctx.status(503);
+                ctx.result(gson.toJson(Map.of("message", "Error: engine busy")));
+            } else if (cause != null) {
+                ctx.status(500);
+                ctx.result(gson.toJson(Map.of("message", String.format("Error: %s", cause.getMessage()))));
+            } else {
+                ctx.status(200);
+                ctx.result(gson.toJson(result));
+            }
+            return null;
+        }));
+    }
 }
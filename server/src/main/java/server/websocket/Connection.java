@@ -14,7 +14,8 @@ public class Connection {
         this.session = session;
     }
 
-    public void send(String msg) throws IOException {
+    // synchronized: engine threads announcing bot moves can send alongside request threads
+    public synchronized void send(String msg) throws IOException {
         session.getRemote().sendString(msg);
     }
 }
\ No newline at end of file
@@ -3,10 +3,12 @@ package server.websocket;
 import chess.ChessGame;
 import chess.ChessMove;
 import chess.ChessPosition;
+import chess.GameStatus;
 import com.google.gson.Gson;
 import dataaccess.DataAccessException;
 import model.AuthData;
 import model.GameData;
+import service.BotService;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
 import org.eclipse.jetty.websocket.api.annotations.WebSocket;
@@ -26,10 +28,13 @@ public class WebSocketHandler {
     private final ConnectionManager connections = new ConnectionManager();
     private final UserService userService;
     private final GameService gameService;
+    private final BotService botService;
 
-    public WebSocketHandler(UserService userService, GameService gameService) {
+    public WebSocketHandler(UserService userService, GameService gameService, BotService botService) {
         this.userService = userService;
         this.gameService = gameService;
+        this.botService = botService;
+        botService.setMoveListener(this::botMoved);
     }
 
     @OnWebSocketMessage
@@ -45,6 +50,7 @@ public class WebSocketHandler {
                 case MAKE_MOVE -> makeMove(session, username, message);
                 case LEAVE -> leave(session, username, command);
                 case RESIGN -> resign(session, username, command);
+                case CLAIM_DRAW -> claimDraw(session, username, command);
             }
         } catch (Exception e) {
             sendError(session, "Error: " + e.getMessage());
@@ -81,54 +87,82 @@ public class WebSocketHandler {
             MakeMoveCommand command = new Gson().fromJson(jsonMessage, MakeMoveCommand.class);
 
             gameService.makeMove(command.getAuthToken(), command.getGameID(), command.getMove());
+            announceMove(command.getGameID(), username, command.getAuthToken(), command.getMove());
+            botService.onGameUpdated(command.getGameID());
 
-            GameData gameData = gameService.getGame(command.getGameID());
-            ChessGame game = gameData.game();
+        } catch (DataAccessException e) {
+            sendError(session, "Error: " + e.getMessage());
+        }
+    }
 
-            LoadGameMessage loadMsg = new LoadGameMessage(game);
-            connections.broadcast(command.getGameID(), "", loadMsg);
+    /**
+     * Called on an engine thread once the bot's move is in
+     */
+    private void botMoved(int gameID, ChessMove move) {
+        try {
+            announceMove(gameID, BotService.BOT_USERNAME, "", move);
+        } catch (DataAccessException | IOException e) {
+            System.err.printf("Could not announce bot move in game %d: %s%n", gameID, e.getMessage());
+        }
+    }
 
-            ChessMove move = command.getMove();
-            String moveString = String.format("%s to %s", positionToString(move.getStartPosition()), positionToString(move.getEndPosition()));
+    /**
+     * Sends everyone in the game the new board, a notification of the move
+     * (except to the player who made it) and the game status if noteworthy
+     */
+    private void announceMove(int gameID, String username, String excludeAuthToken, ChessMove move)
+            throws DataAccessException, IOException {
+        GameData gameData = gameService.getGame(gameID);
+        ChessGame game = gameData.game();
 
-            String message = String.format("%s made a move: %s", username, moveString);
-            NotificationMessage notification = new NotificationMessage(message);
-            connections.broadcast(command.getGameID(), command.getAuthToken(), notification);
+        LoadGameMessage loadMsg = new LoadGameMessage(game);
+        connections.broadcast(gameID, "", loadMsg);
 
-            ChessGame.TeamColor opponentColor;
-            String opponentName;
+        String moveString = String.format("%s to %s", positionToString(move.getStartPosition()), positionToString(move.getEndPosition()));
 
-            if (username.equals(gameData.whiteUsername())) {
-                opponentColor = ChessGame.TeamColor.BLACK;
-                opponentName = gameData.blackUsername();
-            } else {
-                opponentColor = ChessGame.TeamColor.WHITE;
-                opponentName = gameData.whiteUsername();
-            }
+        String message = String.format("%s made a move: %s", username, moveString);
+        NotificationMessage notification = new NotificationMessage(message);
+        connections.broadcast(gameID, excludeAuthToken, notification);
 
-            if (opponentName == null) {
-                opponentName = "Opponent";
-            }
+        String opponentName;
 
-            if (game.isInCheckmate(opponentColor)) {
-                String msg = String.format("%s is in CHECKMATE", opponentName);
-                NotificationMessage mateNotif = new NotificationMessage(msg);
-                connections.broadcast(command.getGameID(), "", mateNotif);
-            } else if (game.isInCheck(opponentColor)) {
-                String msg = String.format("%s is in CHECK", opponentName);
-                NotificationMessage checkNotif = new NotificationMessage(msg);
-                connections.broadcast(command.getGameID(), "", checkNotif);
-            } else if (game.isInStalemate(opponentColor)) {
-                String msg = String.format("%s is in STALEMATE", opponentName);
-                NotificationMessage staleNotif = new NotificationMessage(msg);
-                connections.broadcast(command.getGameID(), "", staleNotif);
-            }
+        if (username.equals(gameData.whiteUsername())) {
+            opponentName = gameData.blackUsername();
+        } else {
+            opponentName = gameData.whiteUsername();
+        }
 
-        } catch (DataAccessException e) {
-            sendError(session, "Error: " + e.getMessage());
+        if (opponentName == null) {
+            opponentName = "Opponent";
+        }
+
+        // the opponent is now the side to move, so one status lookup covers every case
+        String msg = switch (game.getStatus()) {
+            case CHECKMATE -> String.format("%s is in CHECKMATE", opponentName);
+            case CHECK -> String.format("%s is in CHECK", opponentName);
+            case STALEMATE -> String.format("%s is in STALEMATE", opponentName);
+            case DRAW_INSUFFICIENT_MATERIAL -> "The game is a DRAW by insufficient material";
+            case DRAW_SEVENTY_FIVE_MOVES -> "The game is a DRAW by the seventy-five-move rule";
+            case DRAW_FIVEFOLD_REPETITION -> "The game is a DRAW by fivefold repetition";
+            // only ever claimed, never the status after a move
+            case DRAW_FIFTY_MOVES, DRAW_REPETITION, NORMAL -> null;
+        };
+        if (msg != null) {
+            NotificationMessage statusNotif = new NotificationMessage(msg);
+            connections.broadcast(gameID, "", statusNotif);
+        }
+
+        GameStatus claimable = game.getClaimableDraw();
+        if (claimable != null) {
+            String claimMsg = String.format("%s can claim a DRAW by %s", opponentName, drawReason(claimable));
+            connections.broadcast(gameID, "", new NotificationMessage(claimMsg));
         }
     }
 
+    private static String drawReason(GameStatus draw) {
+        return draw == GameStatus.DRAW_FIFTY_MOVES ? "the fifty-move rule" : "threefold repetition";
+    }
+
     private String positionToString(ChessPosition pos) {
         char col = (char) ('a' + pos.getColumn() - 1);
         return "" + col + pos.getRow();
@@ -158,6 +192,25 @@ public class WebSocketHandler {
 
             session.getRemote().sendString(new Gson().toJson(notification));
             connections.broadcast(command.getGameID(), command.getAuthToken(), notification);
+            // so a bot in the game lets go of it
+            botService.onGameUpdated(command.getGameID());
+
+        } catch (DataAccessException e) {
+            sendError(session, "Error: " + e.getMessage());
+        }
+    }
+
+    private void claimDraw(Session session, String username, UserGameCommand command) throws IOException {
+        try {
+            GameStatus draw = gameService.claimDraw(command.getAuthToken(), command.getGameID());
+
+            String message = String.format("%s claimed a DRAW by %s", username, drawReason(draw));
+            NotificationMessage notification = new NotificationMessage(message);
+
+            session.getRemote().sendString(new Gson().toJson(notification));
+            connections.broadcast(command.getGameID(), command.getAuthToken(), notification);
+            // so a bot in the game lets go of it
+            botService.onGameUpdated(command.getGameID());
 
         } catch (DataAccessException e) {
             sendError(session, "Error: " + e.getMessage());
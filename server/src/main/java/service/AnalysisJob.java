@@ -0,0 +1,157 @@
+package service;
+
+import dataaccess.AnalysisDataAccess;
+import dataaccess.DataAccessException;
+import model.GameData;
+
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Offline job that analyzes every stored game that hasn't been analyzed yet.
+ * <p>
+ * Games are read a page at a time in order of id and handed to an
+ * {@link EnginePool}, one game per job. A semaphore caps the games read but
+ * not yet saved, so memory stays bounded however many games there are: the
+ * reader simply waits for a worker to finish.
+ * <p>
+ * Games finish out of order, so the checkpoint is the id just below the
+ * oldest game still in flight; every game up to it is known to be done.
+ * A restarted job resumes from there, and games already analyzed past it are
+ * skipped because they have their summary row. A game that fails is reported
+ * and left unanalyzed, to be tried again by a run started from the beginning.
+ */
+public class AnalysisJob {
+    public static final String DEFAULT_NAME = "default";
+
+    private static final int PAGE_SIZE = 100;
+    private static final int CHECKPOINT_INTERVAL = 100;
+
+    /**
+     * Totals for one run of the job
+     */
+    public record Stats(int games, int failed, long moves, long millis) {
+        public double gamesPerMinute() {
+            return millis == 0 ? 0 : games * 60_000.0 / millis;
+        }
+    }
+
+    private final AnalysisDataAccess dataAccess;
+    private final GameAnalyzer analyzer;
+    private final EnginePool enginePool;
+    private final String name;
+    private final int maxInFlight;
+
+    // ids of games submitted but not yet saved, the lowest one holds the checkpoint back
+    private final TreeSet<Integer> inFlight = new TreeSet<>();
+    private int lastSubmitted;
+    private int sinceCheckpoint;
+
+    /**
+     * @param enginePool  pool to run the analysis on; its queue must hold maxInFlight games
+     * @param name        name the job's checkpoint is saved under
+     * @param maxInFlight most games read but not yet saved at any one time
+     */
+    public AnalysisJob(AnalysisDataAccess dataAccess, GameAnalyzer analyzer, EnginePool enginePool, String name,
+                       int maxInFlight) {
+        this.dataAccess = dataAccess;
+        this.analyzer = analyzer;
+        this.enginePool = enginePool;
+        this.name = name;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Analyzes games from the job's checkpoint onwards until none are left
+     *
+     * @param progress called every {@value #CHECKPOINT_INTERVAL} games with the totals so far, or null
+     * @return totals for this run
+     */
+    public Stats run(Consumer<Stats> progress) throws DataAccessException, InterruptedException {
+        long start = System.nanoTime();
+        AtomicInteger games = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicLong moves = new AtomicLong();
+        Semaphore slots = new Semaphore(maxInFlight);
+
+        int after = dataAccess.getCheckpoint(name);
+        synchronized (inFlight) {
+            lastSubmitted = after;
+            sinceCheckpoint = 0;
+        }
+        List<GameData> page = dataAccess.gamesToAnalyze(after, PAGE_SIZE);
+        while (!page.isEmpty()) {
+            for (GameData gameData : page) {
+                slots.acquire();
+                int gameID = gameData.gameID();
+                synchronized (inFlight) {
+                    inFlight.add(gameID);
+                    lastSubmitted = gameID;
+                }
+                enginePool.submit(search -> analyzer.analyze(gameID, gameData.game(), search))
+                        .whenComplete((analysis, error) -> {
+                            try {
+                                if (error == null) {
+                                    dataAccess.saveAnalysis(analysis);
+                                    moves.addAndGet(analysis.moves().size());
+                                } else {
+                                    failed.incrementAndGet();
+                                    System.err.printf("Analysis of game %d failed: %s%n", gameID, error.getMessage());
+                                }
+                            } catch (DataAccessException e) {
+                                failed.incrementAndGet();
+                                System.err.printf("Saving analysis of game %d failed: %s%n", gameID, e.getMessage());
+                            } finally {
+                                int done = games.incrementAndGet();
+                                if (finished(gameID) && progress != null) {
+                                    progress.accept(stats(done, failed.get(), moves.get(), start));
+                                }
+                                slots.release();
+                            }
+                        });
+            }
+            after = page.get(page.size() - 1).gameID();
+            page = dataAccess.gamesToAnalyze(after, PAGE_SIZE);
+        }
+
+        // every slot back means every game is saved
+        slots.acquire(maxInFlight);
+        slots.release(maxInFlight);
+        synchronized (inFlight) {
+            dataAccess.saveCheckpoint(name, lastSubmitted);
+        }
+        return stats(games.get(), failed.get(), moves.get(), start);
+    }
+
+    /**
+     * Takes a game out of flight, saving the checkpoint now and then
+     *
+     * @return true if a checkpoint was saved
+     */
+    private boolean finished(int gameID) {
+        // saved under the lock, so checkpoints from different threads can't land out of order
+        synchronized (inFlight) {
+            inFlight.remove(gameID);
+            if (++sinceCheckpoint < CHECKPOINT_INTERVAL) {
+                return false;
+            }
+            sinceCheckpoint = 0;
+            int checkpoint = inFlight.isEmpty() ? lastSubmitted : inFlight.first() - 1;
+            try {
+                dataAccess.saveCheckpoint(name, checkpoint);
+            } catch (DataAccessException e) {
+                // the next checkpoint covers these games too
+                System.err.println("Saving checkpoint failed: " + e.getMessage());
+            }
+            return true;
+        }
+    }
+
+    private static Stats stats(int games, int failed, long moves, long start) {
+        return new Stats(games, failed, moves, (System.nanoTime() - start) / 1_000_000);
+    }
+}
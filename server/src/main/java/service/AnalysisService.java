@@ -0,0 +1,206 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Fen;
+import chess.engine.Search;
+import chess.engine.SearchResult;
+import dataaccess.DataAccessException;
+import model.EngineLine;
+import model.PositionAnalysis;
+import servicehelpers.AnalyzeRequest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Engine analysis for the analysis board: the best few lines in a position,
+ * searched on the {@link EnginePool}.
+ * <p>
+ * After a popular game many people look at the same positions, so results
+ * are kept in a bounded cache keyed by position key and search limits, and
+ * a request for a position that is already being searched waits for that
+ * search instead of starting another. Positions are always searched without
+ * the moves that led to them, so a stored game and a FEN of its position get
+ * the same lines.
+ */
+public class AnalysisService {
+    public static final int DEFAULT_LINES = 3;
+    public static final int MAX_LINES = 5;
+    public static final int MAX_DEPTH = 40;
+    public static final long DEFAULT_TIME_MILLIS = 1000;
+    private static final int DEFAULT_CACHE_SIZE = 4096;
+
+    // the halfmove clock is part of the position as far as the search is concerned: it
+    // decides how soon the fifty-move rule draws
+    private record Key(long positionKey, int halfmoveClock, int lines, int depth, long millis) {}
+
+    private final GameService gameService;
+    private final EnginePool enginePool;
+
+    // completed analyses, least recently used first
+    private final Map<Key, PositionAnalysis> cache;
+    // searches queued or running, shared by every request for the same key
+    private final Map<Key, CompletableFuture<PositionAnalysis>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+
+    public AnalysisService(GameService gameService, EnginePool enginePool) {
+        this(gameService, enginePool, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param cacheSize completed analyses to keep
+     */
+    public AnalysisService(GameService gameService, EnginePool enginePool, int cacheSize) {
+        this.gameService = gameService;
+        this.enginePool = enginePool;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, PositionAnalysis> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Analyzes a stored game's current position or a FEN position for a logged-in user
+     *
+     * @return the analysis, failed with RejectedExecutionException if the engine pool is full
+     * @throws DataAccessException "unauthorized" without a valid token, "bad
+     *                             request" for a missing or bad position or limits out of range
+     */
+    public CompletableFuture<PositionAnalysis> analyze(String authToken, AnalyzeRequest request)
+            throws DataAccessException {
+        gameService.authenticate(authToken);
+
+        int lines = request.lines() == null ? DEFAULT_LINES : request.lines();
+        int depth = request.depth() == null ? MAX_DEPTH : request.depth();
+        long millis = request.timeMillis() == null
+                ? (request.depth() == null ? DEFAULT_TIME_MILLIS : BotService.MAX_THINK_MILLIS)
+                : request.timeMillis();
+        if (lines < 1 || lines > MAX_LINES || depth < 1 || depth > MAX_DEPTH
+                || millis <= 0 || millis > BotService.MAX_THINK_MILLIS) {
+            throw new DataAccessException("bad request");
+        }
+        ChessGame game = position(request);
+        String fen = Fen.toFen(game);
+
+        Key key = new Key(game.positionKey(), game.getHalfmoveClock(), lines, depth, millis);
+        PositionAnalysis cached = cached(key);
+        if (cached != null) {
+            cacheHits.increment();
+            return CompletableFuture.completedFuture(withFen(cached, fen));
+        }
+
+        CompletableFuture<PositionAnalysis> future = new CompletableFuture<>();
+        CompletableFuture<PositionAnalysis> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            joined.increment();
+            // a new future, so one caller cancelling doesn't cancel everyone else's
+            return running.thenApply(analysis -> withFen(analysis, fen));
+        }
+        // a search for the key may have finished between the cache lookup and now;
+        // results go into the cache before leaving inFlight, so this sees them
+        cached = cached(key);
+        if (cached != null) {
+            inFlight.remove(key);
+            cacheHits.increment();
+            future.complete(cached);
+            return CompletableFuture.completedFuture(withFen(cached, fen));
+        }
+
+        searches.increment();
+        enginePool.submit(search -> search(search, game, lines, depth, millis)).whenComplete((result, error) -> {
+            // failures aren't cached, so the next request tries again
+            if (error == null) {
+                synchronized (cache) {
+                    cache.put(key, result);
+                }
+            }
+            inFlight.remove(key);
+            if (error == null) {
+                future.complete(result);
+            } else {
+                future.completeExceptionally(error);
+            }
+        });
+        return future.copy();
+    }
+
+    /**
+     * @return the analysis with the fen of the caller's position, whose move number may differ from the searched one
+     */
+    private static PositionAnalysis withFen(PositionAnalysis analysis, String fen) {
+        return analysis.fen().equals(fen) ? analysis
+                : new PositionAnalysis(fen, analysis.lines(), analysis.nodes(), analysis.millis());
+    }
+
+    /**
+     * @return the position to analyze, without the moves that led to it
+     */
+    private ChessGame position(AnalyzeRequest request) throws DataAccessException {
+        if (request.fen() != null) {
+            try {
+                return Fen.parse(request.fen());
+            } catch (IllegalArgumentException e) {
+                throw new DataAccessException("bad request");
+            }
+        }
+        if (request.gameID() != null) {
+            return Fen.parse(Fen.toFen(gameService.getGame(request.gameID()).game()));
+        }
+        throw new DataAccessException("bad request");
+    }
+
+    private PositionAnalysis cached(Key key) {
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    /**
+     * Runs on an engine thread
+     */
+    private static PositionAnalysis search(Search search, ChessGame game, int lines, int depth, long millis) {
+        List<SearchResult> results = search.searchLines(game, lines, depth, millis);
+        List<EngineLine> engineLines = new ArrayList<>(results.size());
+        long nodes = 0;
+        long elapsed = 0;
+        for (SearchResult result : results) {
+            List<String> moves = new ArrayList<>(result.getPrincipalVariation().size());
+            for (ChessMove move : result.getPrincipalVariation()) {
+                moves.add(move.toUci());
+            }
+            engineLines.add(new EngineLine(moves, result.getScore(), result.getMateIn(), result.getDepth()));
+            // every line's result carries the totals so far
+            nodes = Math.max(nodes, result.getNodes());
+            elapsed = Math.max(elapsed, result.getMillis());
+        }
+        return new PositionAnalysis(Fen.toFen(game), engineLines, nodes, elapsed);
+    }
+
+    /**
+     * @return searches started, as opposed to requests answered from the cache or by joining a search
+     */
+    public long getSearches() {
+        return searches.sum();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * @return requests that waited for a search another request had already started
+     */
+    public long getJoined() {
+        return joined.sum();
+    }
+}
@@ -0,0 +1,205 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.engine.OpeningBook;
+import chess.engine.Search;
+import chess.engine.SearchResult;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import model.AuthData;
+import model.GameData;
+import servicehelpers.AddBotRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A computer player that can sit in either seat of a game.
+ * <p>
+ * Whenever a game changes, {@link #onGameUpdated(int)} checks whether the
+ * bot is to move and, if so, hands the search to the {@link EnginePool}.
+ * The bot then plays its move through {@link GameService#makeMove}, with
+ * its own auth token, exactly like a human player, so every rule and check
+ * applies to it too.
+ * <p>
+ * While the game is still in the bot's {@link OpeningBook}, it plays a book
+ * move, picked at random by weight, instead of searching.
+ * <p>
+ * The bot's think time in each game is stored with the game and dropped
+ * once the game is over. After a restart {@link #resumeGames()} picks up
+ * games where the bot was left to move.
+ */
+public class BotService {
+    /** Seat name of the bot; reserved, so no one can register it */
+    public static final String BOT_USERNAME = "bot";
+
+    public static final long DEFAULT_THINK_MILLIS = 1000;
+    public static final long MAX_THINK_MILLIS = 30_000;
+
+    /**
+     * Told about every move the bot makes, e.g. to pass it on to the players
+     */
+    public interface MoveListener {
+        void botMoved(int gameID, ChessMove move);
+    }
+
+    private final DataAccess dataAccess;
+    private final GameService gameService;
+    private final EnginePool enginePool;
+    private final OpeningBook openingBook;
+
+    // games with a search queued or running, so a game never has two at once
+    private final Set<Integer> thinking = ConcurrentHashMap.newKeySet();
+    private volatile String authToken;
+    private volatile MoveListener listener = (gameID, move) -> { };
+
+    public BotService(DataAccess dataAccess, GameService gameService, EnginePool enginePool) {
+        this(dataAccess, gameService, enginePool, OpeningBook.empty());
+    }
+
+    public BotService(DataAccess dataAccess, GameService gameService, EnginePool enginePool,
+                      OpeningBook openingBook) {
+        this.dataAccess = dataAccess;
+        this.gameService = gameService;
+        this.enginePool = enginePool;
+        this.openingBook = openingBook;
+    }
+
+    public void setMoveListener(MoveListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Seats the bot in a game on behalf of a logged-in user, and starts
+     * thinking straight away if it is the bot's turn
+     */
+    public void addBot(String authToken, AddBotRequest request) throws DataAccessException {
+        gameService.authenticate(authToken);
+        long millis = request.thinkMillis() == null ? DEFAULT_THINK_MILLIS : request.thinkMillis();
+        if (millis <= 0 || millis > MAX_THINK_MILLIS) {
+            throw new DataAccessException("bad request");
+        }
+
+        gameService.joinGameAs(request.gameID(), request.playerColor(), BOT_USERNAME);
+        dataAccess.setBotThinkMillis(request.gameID(), millis);
+        onGameUpdated(request.gameID());
+    }
+
+    /**
+     * Starts thinking in every game where the bot is to move, e.g. after a
+     * restart, when nothing else would: searches only start when a move comes in
+     *
+     * @return one future per game the bot plays in, as from {@link #onGameUpdated(int)}
+     */
+    public List<CompletableFuture<ChessMove>> resumeGames() throws DataAccessException {
+        List<CompletableFuture<ChessMove>> futures = new ArrayList<>();
+        for (int gameID : dataAccess.listBotGames()) {
+            futures.add(onGameUpdated(gameID));
+        }
+        return futures;
+    }
+
+    /**
+     * Starts a search if the bot is to move in the game. Cheap to call after
+     * any change; does nothing if the bot isn't to move or is already thinking.
+     * Once the game is over, forgets the bot's settings for it.
+     *
+     * @return the move the bot played, or null once it's decided not to move;
+     * failed if the search or the move failed
+     */
+    public CompletableFuture<ChessMove> onGameUpdated(int gameID) {
+        long budget;
+        try {
+            GameData gameData = gameService.getGame(gameID);
+            if (isOver(gameData.game())) {
+                dataAccess.deleteBotThinkMillis(gameID);
+                return CompletableFuture.completedFuture(null);
+            }
+            if (!isBotToMove(gameData)) {
+                return CompletableFuture.completedFuture(null);
+            }
+            // games the bot joined before think times were stored have none
+            Long millis = dataAccess.getBotThinkMillis(gameID);
+            budget = millis == null ? DEFAULT_THINK_MILLIS : millis;
+        } catch (DataAccessException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (!thinking.add(gameID)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<ChessMove> future = enginePool.submit(search -> think(search, gameID, budget));
+        if (future.isCompletedExceptionally()) {
+            // rejected by a full queue, so think never ran to clear the flag
+            thinking.remove(gameID);
+        }
+        return future.whenComplete((move, error) -> {
+            if (error != null) {
+                System.err.printf("Bot failed to move in game %d: %s%n", gameID, error.getMessage());
+            } else if (move != null) {
+                listener.botMoved(gameID, move);
+                // only matters when the bot has both seats
+                onGameUpdated(gameID);
+            }
+        });
+    }
+
+    /**
+     * Runs on an engine thread
+     */
+    private ChessMove think(Search search, int gameID, long budget) {
+        try {
+            // the game may have moved on while the job was queued
+            GameData gameData = gameService.getGame(gameID);
+            if (!isBotToMove(gameData)) {
+                return null;
+            }
+            ChessMove move = openingBook.pick(gameData.game(), ThreadLocalRandom.current());
+            if (move == null) {
+                SearchResult result = search.search(gameData.game(), Search.MAX_PLY, budget);
+                move = result.getBestMove();
+            }
+            if (move != null) {
+                gameService.makeMove(botAuthToken(), gameID, move);
+            }
+            return move;
+        } catch (DataAccessException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        } finally {
+            // cleared as soon as the move is in, before anyone hears of it and replies
+            thinking.remove(gameID);
+        }
+    }
+
+    private static boolean isOver(ChessGame game) {
+        return game.isGameOver() || game.getTeamTurn() == null || game.getStatus().isGameOver();
+    }
+
+    private static boolean isBotToMove(GameData gameData) {
+        ChessGame game = gameData.game();
+        if (isOver(game)) {
+            return false;
+        }
+        String seat = game.getTeamTurn() == ChessGame.TeamColor.WHITE
+                ? gameData.whiteUsername() : gameData.blackUsername();
+        return BOT_USERNAME.equals(seat);
+    }
+
+    /**
+     * The bot logs in like anyone else; a new token is made if clearing the database removed the old one
+     */
+    private String botAuthToken() throws DataAccessException {
+        String token = authToken;
+        if (token == null || dataAccess.getAuth(token) == null) {
+            AuthData auth = dataAccess.createAuth(BOT_USERNAME);
+            token = auth.authToken();
+            authToken = token;
+        }
+        return token;
+    }
+}
@@ -0,0 +1,103 @@
+package service;
+
+import chess.engine.PieceSquareEvaluator;
+import chess.engine.Search;
+import chess.engine.TranspositionTable;
+import chess.tablebase.Tablebases;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Fixed set of threads that run engine searches, kept apart from Javalin's
+ * request threads so a long think never holds up HTTP or WebSocket traffic.
+ * <p>
+ * The pool is bounded twice over: it never uses more than half the cores,
+ * leaving the rest for the server, and it queues only a limited number of
+ * jobs, failing new ones fast once the queue is full instead of piling up
+ * work. Its threads also run at minimum priority, so when every core is busy
+ * the scheduler favours the request threads.
+ * <p>
+ * Each worker thread keeps its own {@link Search}, reused between jobs.
+ */
+public class EnginePool {
+    private static final int DEFAULT_QUEUE_SIZE = 64;
+    private static final int HASH_MB = 16;
+
+    private final ThreadPoolExecutor executor;
+    private final ThreadLocal<Search> searches;
+
+    public EnginePool() {
+        this(Tablebases.empty());
+    }
+
+    /**
+     * @see #EnginePool(int, int, Tablebases)
+     */
+    public EnginePool(Tablebases tablebases) {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), DEFAULT_QUEUE_SIZE, tablebases);
+    }
+
+    public EnginePool(int threads, int queueSize) {
+        this(threads, queueSize, Tablebases.empty());
+    }
+
+    /**
+     * @param threads    number of engine threads
+     * @param queueSize  jobs that can wait for a thread before new ones are rejected
+     * @param tablebases endgame tables every search probes
+     */
+    public EnginePool(int threads, int queueSize, Tablebases tablebases) {
+        this.searches = ThreadLocal.withInitial(() -> {
+            Search search = new Search(new PieceSquareEvaluator(), new TranspositionTable(HASH_MB));
+            search.setTablebases(tablebases);
+            return search;
+        });
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "engine-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+    }
+
+    /**
+     * Runs a job on an engine thread
+     *
+     * @param job work to do with the thread's search
+     * @return the job's result, or a future failed with RejectedExecutionException
+     * if the queue is full or the pool has been shut down
+     */
+    public <T> CompletableFuture<T> submit(Function<Search, T> job) {
+        try {
+            return CompletableFuture.supplyAsync(() -> job.apply(searches.get()), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public int getThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    /**
+     * @return jobs waiting for a thread
+     */
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Stops taking jobs; jobs already running are left to finish
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,129 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Fen;
+import chess.InvalidMoveException;
+import chess.engine.Search;
+import chess.engine.SearchResult;
+import model.GameAnalysis;
+import model.MoveAnalysis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replays a stored game and has the engine judge every move.
+ * <p>
+ * Every position of the game is searched once. A move's loss is how much
+ * worse the position is for the player after it than before it, by the
+ * engine's scores: the score before is what the best move would have kept.
+ * Accuracy follows the common approach of converting scores to winning
+ * chances and scoring each move by how much of its player's chances it threw
+ * away, 100 for a move that keeps them all.
+ */
+public class GameAnalyzer {
+    public static final int DEFAULT_DEPTH = 6;
+    public static final long DEFAULT_MILLIS = 1000;
+    public static final int DEFAULT_BLUNDER_LOSS = 200;
+
+    // mate scores are capped to this, so one missed mate doesn't swamp every average
+    private static final int SCORE_CAP = 1000;
+
+    private final int depth;
+    private final long millisPerPosition;
+    private final int blunderLoss;
+
+    public GameAnalyzer() {
+        this(DEFAULT_DEPTH, DEFAULT_MILLIS, DEFAULT_BLUNDER_LOSS);
+    }
+
+    /**
+     * @param depth             search depth per position
+     * @param millisPerPosition time limit per position, in case the depth takes too long
+     * @param blunderLoss       centipawns a move must give away to count as a blunder
+     */
+    public GameAnalyzer(int depth, long millisPerPosition, int blunderLoss) {
+        this.depth = depth;
+        this.millisPerPosition = millisPerPosition;
+        this.blunderLoss = blunderLoss;
+    }
+
+    /**
+     * @param gameID id to record the analysis under
+     * @param stored game whose move log to replay
+     * @param search search to use, not shared with other threads
+     * @return the verdict on every move of the log
+     * @throws IllegalArgumentException if the log holds a move that isn't legal
+     */
+    public GameAnalysis analyze(int gameID, ChessGame stored, Search search) {
+        ChessGame game = Fen.parse(stored.getStartFen());
+        List<ChessMove> log = stored.getMoveLog();
+        boolean whiteStarts = game.getTeamTurn() == ChessGame.TeamColor.WHITE;
+
+        // score of each position for its side to move, and the move the engine wanted there
+        int[] scores = new int[log.size() + 1];
+        ChessMove[] best = new ChessMove[log.size()];
+        for (int ply = 0; ply <= log.size(); ply++) {
+            SearchResult result = search.search(game, depth, millisPerPosition);
+            scores[ply] = Math.max(-SCORE_CAP, Math.min(SCORE_CAP, result.getScore()));
+            if (ply == log.size()) {
+                break;
+            }
+            best[ply] = result.getBestMove();
+            try {
+                game.makeMove(log.get(ply));
+            } catch (InvalidMoveException e) {
+                throw new IllegalArgumentException("Game " + gameID + " has an illegal move at ply " + ply, e);
+            }
+        }
+
+        List<MoveAnalysis> moves = new ArrayList<>(log.size());
+        double[] accuracyTotal = new double[2];
+        int[] blunders = new int[2];
+        for (int ply = 0; ply < log.size(); ply++) {
+            int before = scores[ply];
+            // the next position is scored for the opponent
+            int after = -scores[ply + 1];
+            int loss = Math.max(0, before - after);
+            double accuracy = moveAccuracy(before, after);
+            boolean blunder = loss >= blunderLoss;
+
+            int side = (ply % 2 == 0) == whiteStarts ? 0 : 1;
+            accuracyTotal[side] += accuracy;
+            if (blunder) {
+                blunders[side]++;
+            }
+            moves.add(new MoveAnalysis(ply, log.get(ply).toUci(), best[ply] == null ? null : best[ply].toUci(),
+                    before, after, loss, accuracy, blunder));
+        }
+
+        int firstSideMoves = (log.size() + 1) / 2;
+        int secondSideMoves = log.size() / 2;
+        int whiteMoves = whiteStarts ? firstSideMoves : secondSideMoves;
+        int blackMoves = whiteStarts ? secondSideMoves : firstSideMoves;
+        return new GameAnalysis(gameID, moves, average(accuracyTotal[0], whiteMoves),
+                average(accuracyTotal[1], blackMoves), blunders[0], blunders[1]);
+    }
+
+    /**
+     * @param centipawns score for one player
+     * @return that player's chance of winning, 0-100
+     */
+    static double winChance(int centipawns) {
+        return 50 + 50 * (2 / (1 + Math.exp(-0.00368208 * centipawns)) - 1);
+    }
+
+    static double moveAccuracy(int before, int after) {
+        double drop = winChance(before) - winChance(after);
+        if (drop <= 0) {
+            return 100;
+        }
+        double accuracy = 103.1668 * Math.exp(-0.04354 * drop) - 3.1669;
+        return Math.max(0, Math.min(100, accuracy));
+    }
+
+    private static double average(double total, int count) {
+        return count == 0 ? 100 : total / count;
+    }
+}
@@ -2,6 +2,7 @@ package service;
 
 import chess.ChessGame;
 import chess.ChessMove;
+import chess.GameStatus;
 import chess.InvalidMoveException;
 
 import dataaccess.DataAccess;
@@ -50,10 +51,15 @@ public class GameService {
 
     public void joinGame(String authToken, JoinGameRequest request) throws DataAccessException {
         AuthData auth = authenticate(authToken);
-        String username = auth.username();
-        String playerColor = request.playerColor();
+        joinGameAs(request.gameID(), request.playerColor(), auth.username());
+    }
 
-        GameData game = dataAccess.getGame(request.gameID());
+    /**
+     * Seats a player without checking any auth token, for players the server
+     * itself controls such as the bot
+     */
+    public void joinGameAs(int gameID, String playerColor, String username) throws DataAccessException {
+        GameData game = dataAccess.getGame(gameID);
 
         if (playerColor == null || playerColor.isEmpty()) {
             throw new DataAccessException("bad request");
@@ -99,6 +105,10 @@ public class GameService {
         } catch (InvalidMoveException e) {
             throw new DataAccessException(e.getMessage());
         }
+        // mate, stalemate and the automatic draws end the game for good, and it's saved that way
+        if (game.getStatus().isGameOver()) {
+            game.setGameOver(true);
+        }
 
         GameData updatedGame = new GameData(
                 gameID,
@@ -151,6 +161,37 @@ public class GameService {
 
     }
 
+    /**
+     * Ends the game in a draw by the fifty-move rule or threefold repetition,
+     * claimed by the player whose turn it is
+     *
+     * @return the draw that was claimed
+     */
+    public GameStatus claimDraw(String authToken, int gameID) throws DataAccessException {
+        AuthData auth = authenticate(authToken);
+        String username = auth.username();
+
+        GameData gameData = dataAccess.getGame(gameID);
+        ChessGame game = getChessGame(gameData, username);
+
+        GameStatus draw;
+        try {
+            draw = game.claimDraw();
+        } catch (InvalidMoveException e) {
+            throw new DataAccessException(e.getMessage());
+        }
+
+        GameData updatedGame = new GameData(
+                gameID,
+                gameData.whiteUsername(),
+                gameData.blackUsername(),
+                gameData.gameName(),
+                game
+        );
+        dataAccess.updateGame(gameID, updatedGame);
+        return draw;
+    }
+
     public void resign(String authToken, int gameID) throws DataAccessException {
         AuthData auth = authenticate(authToken);
         String username = auth.username();
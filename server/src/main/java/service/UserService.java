@@ -18,7 +18,7 @@ public class UserService {
     public AuthData register(UserData user) throws DataAccessException {
         if(user.username() == null || user.email() == null || user.password() == null) {
             throw new DataAccessException("bad request");
-        } if(dataAccess.getUser(user.username()) != null){
+        } if(dataAccess.getUser(user.username()) != null || user.username().equals(BotService.BOT_USERNAME)){
             throw new DataAccessException("already taken");
         }
 
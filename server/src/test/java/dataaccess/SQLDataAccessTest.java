@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 import org.mindrot.jbcrypt.BCrypt;
 
 import java.util.Collection;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -206,4 +207,40 @@ public class SQLDataAccessTest { // Renamed file
         });
         assertEquals("Auth doesn't exist", e.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void setBotThinkMillisSuccess() throws DataAccessException {
+        GameData game = dataAccess.createGame("vs bot");
+
+        dataAccess.setBotThinkMillis(game.gameID(), 500);
+        assertEquals(500L, dataAccess.getBotThinkMillis(game.gameID()));
+
+        // setting it again replaces the old value
+        dataAccess.setBotThinkMillis(game.gameID(), 2000);
+        assertEquals(2000L, dataAccess.getBotThinkMillis(game.gameID()));
+    }
+
+    @Test
+    public void getBotThinkMillisFailureNotFound() throws DataAccessException {
+        assertNull(dataAccess.getBotThinkMillis(99999));
+    }
+
+    @Test
+    public void deleteBotThinkMillisSuccess() throws DataAccessException {
+        GameData first = dataAccess.createGame("game1");
+        GameData second = dataAccess.createGame("game2");
+        dataAccess.setBotThinkMillis(first.gameID(), 500);
+        dataAccess.setBotThinkMillis(second.gameID(), 500);
+
+        dataAccess.deleteBotThinkMillis(first.gameID());
+
+        assertNull(dataAccess.getBotThinkMillis(first.gameID()));
+        assertEquals(List.of(second.gameID()), List.copyOf(dataAccess.listBotGames()));
+    }
+
+    @Test
+    public void listBotGamesSuccessEmpty() throws DataAccessException {
+        dataAccess.createGame("game1");
+        assertTrue(dataAccess.listBotGames().isEmpty());
+    }
+}
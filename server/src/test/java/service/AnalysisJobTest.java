@@ -0,0 +1,113 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.engine.Search;
+import dataaccess.AnalysisDataAccess;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.MemAnalysisDataAccess;
+import dataaccess.MemDataAcess;
+import model.GameAnalysis;
+import model.GameData;
+import model.MoveAnalysis;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnalysisJobTest {
+    private DataAccess dataAccess;
+    private AnalysisDataAccess analysisDataAccess;
+    private EnginePool enginePool;
+    private GameAnalyzer analyzer;
+
+    @BeforeEach
+    public void setUp() {
+        dataAccess = new MemDataAcess();
+        analysisDataAccess = new MemAnalysisDataAccess(dataAccess);
+        enginePool = new EnginePool(2, 8);
+        analyzer = new GameAnalyzer(3, 1000, GameAnalyzer.DEFAULT_BLUNDER_LOSS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        enginePool.shutdown();
+    }
+
+    @Test
+    public void hangingTheQueenIsABlunder() throws Exception {
+        // 1. e4 e5 2. Qh5 Nc6 3. Qxe5+?? Nxe5
+        int gameID = createGame("e2e4", "e7e5", "d1h5", "b8c6", "h5e5", "c6e5");
+
+        GameAnalysis analysis = analyzer.analyze(gameID, dataAccess.getGame(gameID).game(),
+                new Search());
+
+        assertEquals(6, analysis.moves().size());
+        MoveAnalysis queenMove = analysis.moves().get(4);
+        assertEquals("h5e5", queenMove.move());
+        assertTrue(queenMove.blunder());
+        assertTrue(queenMove.loss() >= GameAnalyzer.DEFAULT_BLUNDER_LOSS);
+        assertFalse(analysis.moves().get(5).blunder(), "taking the queen is no blunder");
+        assertEquals(1, analysis.whiteBlunders());
+        assertEquals(0, analysis.blackBlunders());
+        assertTrue(analysis.whiteAccuracy() < analysis.blackAccuracy());
+    }
+
+    @Test
+    public void accuracyFallsWithTheScore() {
+        assertEquals(100, GameAnalyzer.moveAccuracy(50, 80));
+        assertEquals(100, GameAnalyzer.moveAccuracy(50, 50), 0.01);
+        assertTrue(GameAnalyzer.moveAccuracy(50, -50) > GameAnalyzer.moveAccuracy(50, -400));
+        assertEquals(0, GameAnalyzer.moveAccuracy(1000, -1000));
+    }
+
+    @Test
+    public void jobAnalyzesEveryGameAndResumes() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            createGame("e2e4", "e7e5", "g1f3");
+        }
+        AnalysisJob job = new AnalysisJob(analysisDataAccess, analyzer, enginePool, "test", 3);
+
+        AnalysisJob.Stats stats = job.run(null);
+
+        assertEquals(5, stats.games());
+        assertEquals(0, stats.failed());
+        assertEquals(15, stats.moves());
+        assertEquals(5, analysisDataAccess.getCheckpoint("test"));
+        for (int gameID = 1; gameID <= 5; gameID++) {
+            assertEquals(3, analysisDataAccess.getAnalysis(gameID).moves().size());
+        }
+
+        // a later run only picks up the new game
+        int newGame = createGame("d2d4");
+        stats = job.run(null);
+        assertEquals(1, stats.games());
+        assertNotNull(analysisDataAccess.getAnalysis(newGame));
+        assertEquals(newGame, analysisDataAccess.getCheckpoint("test"));
+    }
+
+    @Test
+    public void jobSkipsGamesAlreadyAnalyzed() throws Exception {
+        int first = createGame("e2e4");
+        int second = createGame("d2d4");
+        analysisDataAccess.saveAnalysis(analyzer.analyze(second, dataAccess.getGame(second).game(),
+                new Search()));
+
+        AnalysisJob.Stats stats = new AnalysisJob(analysisDataAccess, analyzer, enginePool, "test", 2).run(null);
+
+        assertEquals(1, stats.games());
+        assertNotNull(analysisDataAccess.getAnalysis(first));
+    }
+
+    private int createGame(String... moves) throws Exception {
+        GameData gameData = dataAccess.createGame("analysis");
+        ChessGame game = gameData.game();
+        for (String move : moves) {
+            game.makeMove(ChessMove.fromUci(move));
+        }
+        dataAccess.updateGame(gameData.gameID(), gameData);
+        return gameData.gameID();
+    }
+}
@@ -0,0 +1,149 @@
+package service;
+
+import chess.ChessMove;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.MemDataAcess;
+import model.AuthData;
+import model.PositionAnalysis;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import servicehelpers.AnalyzeRequest;
+import servicehelpers.JoinGameRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnalysisServiceTest {
+    private static final String HANGING_QUEEN = "4k3/8/8/3q4/8/8/8/3RK3 w - - 0 1";
+
+    private DataAccess dataAccess;
+    private GameService gameService;
+    private EnginePool enginePool;
+    private AnalysisService analysisService;
+    private AuthData auth;
+
+    @BeforeEach
+    public void setUp() throws DataAccessException {
+        dataAccess = new MemDataAcess();
+        gameService = new GameService(dataAccess);
+        enginePool = new EnginePool(1, 16);
+        analysisService = new AnalysisService(gameService, enginePool);
+        auth = dataAccess.createAuth("user1");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        enginePool.shutdown();
+    }
+
+    @Test
+    public void analyzesFen() throws Exception {
+        PositionAnalysis analysis = analysisService.analyze(auth.authToken(),
+                new AnalyzeRequest(null, HANGING_QUEEN, 2, 4, null)).get(10, TimeUnit.SECONDS);
+
+        assertEquals(2, analysis.lines().size());
+        assertEquals("d1d5", analysis.lines().get(0).moves().get(0));
+        assertEquals(4, analysis.lines().get(0).depth());
+        assertTrue(analysis.lines().get(0).score() > analysis.lines().get(1).score());
+    }
+
+    @Test
+    public void analyzesStoredGame() throws Exception {
+        int gameID = gameService.createGame(auth.authToken(), "game").gameID();
+        PositionAnalysis analysis = analysisService.analyze(auth.authToken(),
+                new AnalyzeRequest(gameID, null, null, 2, null)).get(10, TimeUnit.SECONDS);
+
+        assertEquals(AnalysisService.DEFAULT_LINES, analysis.lines().size());
+        assertEquals("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", analysis.fen());
+    }
+
+    @Test
+    public void storedGameAndFenShareTheSearch() throws Exception {
+        int gameID = gameService.createGame(auth.authToken(), "game").gameID();
+        AuthData black = dataAccess.createAuth("user2");
+        gameService.joinGame(auth.authToken(), new JoinGameRequest("WHITE", gameID));
+        gameService.joinGame(black.authToken(), new JoinGameRequest("BLACK", gameID));
+        // knights out and back: the start position again, now with a history
+        String[] moves = {"g1f3", "g8f6", "f3g1", "f6g8"};
+        for (int i = 0; i < moves.length; i++) {
+            String token = i % 2 == 0 ? auth.authToken() : black.authToken();
+            gameService.makeMove(token, gameID, ChessMove.fromUci(moves[i]));
+        }
+
+        PositionAnalysis fromGame = analysisService.analyze(auth.authToken(),
+                new AnalyzeRequest(gameID, null, 2, 2, null)).get(10, TimeUnit.SECONDS);
+        String fen = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 4 9";
+        PositionAnalysis fromFen = analysisService.analyze(auth.authToken(),
+                new AnalyzeRequest(null, fen, 2, 2, null)).get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, analysisService.getSearches());
+        assertEquals(1, analysisService.getCacheHits());
+        assertEquals(fromGame.lines(), fromFen.lines());
+        // each caller gets its own position back
+        assertEquals("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 4 3", fromGame.fen());
+        assertEquals(fen, fromFen.fen());
+    }
+
+    @Test
+    public void collapsesConcurrentRequests() throws Exception {
+        // hold the only engine thread so the requests all arrive before the search starts
+        CountDownLatch release = new CountDownLatch(1);
+        enginePool.submit(search -> {
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        AnalyzeRequest request = new AnalyzeRequest(null, HANGING_QUEEN, 3, 3, null);
+        List<CompletableFuture<PositionAnalysis>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(analysisService.analyze(auth.authToken(), request));
+        }
+        release.countDown();
+
+        PositionAnalysis first = futures.get(0).get(10, TimeUnit.SECONDS);
+        for (CompletableFuture<PositionAnalysis> future : futures) {
+            assertSame(first, future.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, analysisService.getSearches());
+        assertEquals(4, analysisService.getJoined());
+
+        // finished searches are answered from the cache
+        CompletableFuture<PositionAnalysis> again = analysisService.analyze(auth.authToken(), request);
+        assertTrue(again.isDone());
+        assertSame(first, again.get());
+        assertEquals(1, analysisService.getCacheHits());
+        assertEquals(1, analysisService.getSearches());
+
+        // different limits are a different search
+        analysisService.analyze(auth.authToken(), new AnalyzeRequest(null, HANGING_QUEEN, 2, 3, null))
+                .get(10, TimeUnit.SECONDS);
+        assertEquals(2, analysisService.getSearches());
+    }
+
+    @Test
+    public void rejectsBadRequests() {
+        assertThrows(DataAccessException.class, () -> analysisService.analyze("bad token",
+                new AnalyzeRequest(null, HANGING_QUEEN, null, null, null)));
+
+        List<AnalyzeRequest> bad = List.of(
+                new AnalyzeRequest(null, null, null, null, null),
+                new AnalyzeRequest(null, "not a fen", null, null, null),
+                new AnalyzeRequest(12345, null, null, null, null),
+                new AnalyzeRequest(null, HANGING_QUEEN, AnalysisService.MAX_LINES + 1, null, null),
+                new AnalyzeRequest(null, HANGING_QUEEN, null, 0, null),
+                new AnalyzeRequest(null, HANGING_QUEEN, null, null, BotService.MAX_THINK_MILLIS + 1));
+        for (AnalyzeRequest request : bad) {
+            assertThrows(DataAccessException.class, () -> analysisService.analyze(auth.authToken(), request));
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.engine.OpeningBook;
+import chess.engine.OpeningBookBuilder;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.MemDataAcess;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import servicehelpers.AddBotRequest;
+import servicehelpers.JoinGameRequest;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BotServiceTest {
+    private DataAccess dataAccess;
+    private GameService gameService;
+    private EnginePool enginePool;
+    private BotService botService;
+    private AuthData auth;
+    private int gameID;
+
+    @BeforeEach
+    public void setUp() throws DataAccessException {
+        dataAccess = new MemDataAcess();
+        gameService = new GameService(dataAccess);
+        enginePool = new EnginePool(1, 4);
+        botService = new BotService(dataAccess, gameService, enginePool);
+
+        auth = dataAccess.createAuth("user1");
+        gameID = gameService.createGame(auth.authToken(), "vs bot").gameID();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        enginePool.shutdown();
+    }
+
+    @Test
+    public void botRepliesThroughMakeMove() throws Exception {
+        gameService.joinGame(auth.authToken(), new JoinGameRequest("WHITE", gameID));
+        botService.addBot(auth.authToken(), new AddBotRequest("BLACK", gameID, 50L));
+        assertEquals(BotService.BOT_USERNAME, gameService.getGame(gameID).blackUsername());
+
+        gameService.makeMove(auth.authToken(), gameID, ChessMove.fromUci("e2e4"));
+        ChessMove reply = botService.onGameUpdated(gameID).get(10, TimeUnit.SECONDS);
+
+        assertNotNull(reply);
+        GameData game = gameService.getGame(gameID);
+        assertEquals(ChessGame.TeamColor.WHITE, game.game().getTeamTurn());
+        assertNull(game.game().getBoard().getPiece(reply.getStartPosition()));
+    }
+
+    @Test
+    public void botMovesFirstAsWhite() throws Exception {
+        CountDownLatch moved = new CountDownLatch(1);
+        botService.setMoveListener((id, move) -> moved.countDown());
+
+        botService.addBot(auth.authToken(), new AddBotRequest("WHITE", gameID, 50L));
+
+        assertTrue(moved.await(10, TimeUnit.SECONDS));
+        assertEquals(ChessGame.TeamColor.BLACK, gameService.getGame(gameID).game().getTeamTurn());
+    }
+
+    @Test
+    public void botPlaysFromTheBook(@TempDir Path dir) throws Exception {
+        // a move no search would choose, so it can only have come from the book
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        builder.add(new ChessGame().positionKey(), ChessMove.fromUci("a2a3"), 1);
+        Path path = dir.resolve("book.bin");
+        builder.write(path, 1);
+        botService = new BotService(dataAccess, gameService, enginePool, OpeningBook.open(path));
+        CompletableFuture<ChessMove> played = new CompletableFuture<>();
+        botService.setMoveListener((id, move) -> played.complete(move));
+
+        botService.addBot(auth.authToken(), new AddBotRequest("WHITE", gameID, 50L));
+
+        assertEquals("a2a3", played.get(10, TimeUnit.SECONDS).toUci());
+    }
+
+    @Test
+    public void botWaitsForItsTurn() throws Exception {
+        botService.addBot(auth.authToken(), new AddBotRequest("BLACK", gameID, 50L));
+        assertNull(botService.onGameUpdated(gameID).get(10, TimeUnit.SECONDS));
+        assertEquals(ChessGame.TeamColor.WHITE, gameService.getGame(gameID).game().getTeamTurn());
+    }
+
+    @Test
+    public void resumesTurnAfterRestart() throws Exception {
+        gameService.joinGame(auth.authToken(), new JoinGameRequest("WHITE", gameID));
+        botService.addBot(auth.authToken(), new AddBotRequest("BLACK", gameID, 50L));
+        assertEquals(50L, dataAccess.getBotThinkMillis(gameID));
+
+        // the move lands while the server is down, so nobody tells the bot
+        gameService.makeMove(auth.authToken(), gameID, ChessMove.fromUci("e2e4"));
+        BotService restarted = new BotService(dataAccess, gameService, enginePool);
+        List<CompletableFuture<ChessMove>> resumed = restarted.resumeGames();
+
+        assertEquals(1, resumed.size());
+        assertNotNull(resumed.get(0).get(10, TimeUnit.SECONDS));
+        assertEquals(ChessGame.TeamColor.WHITE, gameService.getGame(gameID).game().getTeamTurn());
+    }
+
+    @Test
+    public void forgetsFinishedGames() throws Exception {
+        gameService.joinGame(auth.authToken(), new JoinGameRequest("WHITE", gameID));
+        botService.addBot(auth.authToken(), new AddBotRequest("BLACK", gameID, 50L));
+
+        gameService.resign(auth.authToken(), gameID);
+        assertNull(botService.onGameUpdated(gameID).get(10, TimeUnit.SECONDS));
+
+        assertNull(dataAccess.getBotThinkMillis(gameID));
+        assertTrue(botService.resumeGames().isEmpty());
+    }
+
+    @Test
+    public void addBotFail() throws DataAccessException {
+        DataAccessException e = assertThrows(DataAccessException.class,
+                () -> botService.addBot("fake token", new AddBotRequest("WHITE", gameID, null)));
+        assertEquals("unauthorized", e.getMessage());
+
+        e = assertThrows(DataAccessException.class,
+                () -> botService.addBot(auth.authToken(), new AddBotRequest("WHITE", gameID, 0L)));
+        assertEquals("bad request", e.getMessage());
+
+        gameService.joinGame(auth.authToken(), new JoinGameRequest("WHITE", gameID));
+        e = assertThrows(DataAccessException.class,
+                () -> botService.addBot(auth.authToken(), new AddBotRequest("WHITE", gameID, null)));
+        assertEquals("already taken", e.getMessage());
+    }
+
+    @Test
+    public void botNameIsReserved() {
+        UserService userService = new UserService(dataAccess);
+        DataAccessException e = assertThrows(DataAccessException.class,
+                () -> userService.register(new UserData(BotService.BOT_USERNAME, "pw", "bot@example.com")));
+        assertEquals("already taken", e.getMessage());
+    }
+
+    @Test
+    public void enginePoolRejectsWhenFull() throws Exception {
+        EnginePool pool = new EnginePool(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<Integer> running = pool.submit(search -> {
+                awaitQuietly(release);
+                return 1;
+            });
+            CompletableFuture<Integer> queued = pool.submit(search -> 2);
+            // the first job went straight to the one thread, the second took the one queue slot
+            CompletableFuture<Integer> rejected = pool.submit(search -> 3);
+
+            ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+            assertInstanceOf(RejectedExecutionException.class, e.getCause());
+            release.countDown();
+            assertEquals(1, running.get(10, TimeUnit.SECONDS));
+            assertEquals(2, queued.get(10, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
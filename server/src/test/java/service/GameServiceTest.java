@@ -1,6 +1,8 @@
 package service;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.GameStatus;
 import dataaccess.DataAccess;
 import dataaccess.DataAccessException;
 import dataaccess.SQLDataAccess;
@@ -181,5 +183,59 @@ public class GameServiceTest {
         assertEquals("Game doesn't exist", e.getMessage());
     }
 
+    @Test
+    public void claimDrawSuccess() throws DataAccessException {
+        AuthData auth1 = dataAccess.createAuth("user1");
+        AuthData auth2 = dataAccess.createAuth("user2");
+        GameData game = startGame(auth1, auth2);
+        shuffleKnights(auth1, auth2, game.gameID());
+
+        // threefold repetition is only a draw once claimed
+        assertFalse(dataAccess.getGame(game.gameID()).game().isGameOver());
+
+        assertEquals(GameStatus.DRAW_REPETITION, gameService.claimDraw(auth1.authToken(), game.gameID()));
+
+        assertTrue(dataAccess.getGame(game.gameID()).game().isGameOver());
+        DataAccessException e = assertThrows(DataAccessException.class, () -> {
+            gameService.makeMove(auth1.authToken(), game.gameID(), ChessMove.fromUci("e2e4"));
+        });
+        assertEquals("Game is over", e.getMessage());
+    }
+
+    @Test
+    public void claimDrawFail() throws DataAccessException {
+        AuthData auth1 = dataAccess.createAuth("user1");
+        AuthData auth2 = dataAccess.createAuth("user2");
+        GameData game = startGame(auth1, auth2);
+
+        DataAccessException e = assertThrows(DataAccessException.class, () -> {
+            gameService.claimDraw(auth1.authToken(), game.gameID());
+        });
+        assertEquals("No draw to claim", e.getMessage());
 
+        // only the side to move can claim
+        shuffleKnights(auth1, auth2, game.gameID());
+        assertThrows(DataAccessException.class, () -> gameService.claimDraw(auth2.authToken(), game.gameID()));
+        assertFalse(dataAccess.getGame(game.gameID()).game().isGameOver());
+    }
+
+    private GameData startGame(AuthData white, AuthData black) throws DataAccessException {
+        GameData game = dataAccess.createGame("game1");
+        gameService.joinGame(white.authToken(), new JoinGameRequest("WHITE", game.gameID()));
+        gameService.joinGame(black.authToken(), new JoinGameRequest("BLACK", game.gameID()));
+        return game;
+    }
+
+    /**
+     * Knights out and back twice, so the starting position has occurred three times
+     */
+    private void shuffleKnights(AuthData white, AuthData black, int gameID) throws DataAccessException {
+        String[] shuffle = {"g1f3", "g8f6", "f3g1", "f6g8"};
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < shuffle.length; i++) {
+                String token = i % 2 == 0 ? white.authToken() : black.authToken();
+                gameService.makeMove(token, gameID, ChessMove.fromUci(shuffle[i]));
+            }
+        }
+    }
 }
@@ -0,0 +1,78 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Castling rights as a 4-bit mask, one bit per king & side.
+ * <p>
+ * A right is lost for good once its king or rook moves, or the rook is
+ * captured on its home square. Whether castling is actually possible also
+ * depends on the squares in between, which the move generator checks.
+ */
+public final class CastlingRights {
+    public static final int NONE = 0;
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL = 15;
+
+    static final int WHITE_KING_HOME = 4;   // e1
+    static final int BLACK_KING_HOME = 60;  // e8
+
+    // rights that survive a move touching each square: moving from or capturing on a
+    // king or rook home square clears the rights that depend on it
+    private static final int[] KEEP = new int[64];
+
+    static {
+        Arrays.fill(KEEP, ALL);
+        KEEP[0] &= ~WHITE_QUEENSIDE;
+        KEEP[7] &= ~WHITE_KINGSIDE;
+        KEEP[WHITE_KING_HOME] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        KEEP[56] &= ~BLACK_QUEENSIDE;
+        KEEP[63] &= ~BLACK_KINGSIDE;
+        KEEP[BLACK_KING_HOME] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+    }
+
+    private CastlingRights() {
+    }
+
+    /**
+     * @param rights rights before the move
+     * @param from   start square of the move
+     * @param to     end square of the move
+     * @return rights after the move
+     */
+    static int afterMove(int rights, int from, int to) {
+        return rights & KEEP[from] & KEEP[to];
+    }
+
+    /**
+     * Works out the rights a board could still have from where its kings and
+     * rooks stand, for boards set up without any history
+     *
+     * @param board board to look at
+     * @return a right for every king & rook still on their home squares
+     */
+    static int infer(ChessBoard board) {
+        int rights = NONE;
+        rights |= infer(board, ChessGame.TeamColor.WHITE, WHITE_KING_HOME, WHITE_KINGSIDE, WHITE_QUEENSIDE);
+        rights |= infer(board, ChessGame.TeamColor.BLACK, BLACK_KING_HOME, BLACK_KINGSIDE, BLACK_QUEENSIDE);
+        return rights;
+    }
+
+    private static int infer(ChessBoard board, ChessGame.TeamColor color, int kingHome, int kingside, int queenside) {
+        if ((board.getBitboard(color, ChessPiece.PieceType.KING) & (1L << kingHome)) == 0) {
+            return NONE;
+        }
+        long rooks = board.getBitboard(color, ChessPiece.PieceType.ROOK);
+        int rights = NONE;
+        if ((rooks & (1L << (kingHome + 3))) != 0) {
+            rights |= kingside;
+        }
+        if ((rooks & (1L << (kingHome - 4))) != 0) {
+            rights |= queenside;
+        }
+        return rights;
+    }
+}
@@ -1,7 +1,9 @@
 package chess;
 
+import chess.calculators.AttackTables;
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.Arrays;
-import java.util.Objects;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
@@ -9,9 +11,30 @@ import java.util.Objects;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(StoredFormat.class)
 public class ChessBoard {
 
-    ChessPiece[][] squares = new ChessPiece[8][8];
+    /*
+     * Squares are numbered 0-63 starting at a1 (row 1, column 1) and moving
+     * across each row, so square = (row - 1) * 8 + (column - 1).
+     * There is one bitboard per color & piece type, indexed by
+     * color.ordinal() * 6 + type.ordinal(), plus occupancy masks for each
+     * color and for the whole board.
+     */
+    private long[] pieceBitboards = new long[12];
+    private long[] colorOccupancy = new long[2];
+    private long occupied;
+
+    // Zobrist hash of the pieces on the board, kept up to date as pieces are added & removed
+    private long zobristKey;
+
+    // bitboard index + 1 of the piece on each square, 0 if empty, so a square can be looked up
+    // without testing every bitboard. Not serialized; rebuilt from the bitboards on first use.
+    private transient byte[] mailbox;
+
+    // middlegame score, endgame score and game phase from PieceSquareTables, kept up to date
+    // like the key once computed. Not serialized; rebuilt from the bitboards on first use.
+    private transient int[] pieceSquareScores;
 
     public ChessBoard() {
         // resetBoard();
@@ -20,20 +43,19 @@ public class ChessBoard {
     /** Deep Copy Constructor
      *
      * @param original board to copy
-     * copies each element of the original board
+     * copies the bitboards of the original board
      * onto a new one.
      */
     public ChessBoard(ChessBoard original) {
-        this.squares = new ChessPiece[8][8];
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                // ChessPosition is 1-indexed, arrays are 0-indexed
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = original.getPiece(pos);
-                if (piece != null) {
-                    this.addPiece(pos, piece);
-                }
-            }
+        this.pieceBitboards = original.pieceBitboards.clone();
+        this.colorOccupancy = original.colorOccupancy.clone();
+        this.occupied = original.occupied;
+        this.zobristKey = original.zobristKey;
+        if (original.mailbox != null) {
+            this.mailbox = original.mailbox.clone();
+        }
+        if (original.pieceSquareScores != null) {
+            this.pieceSquareScores = original.pieceSquareScores.clone();
         }
     }
 
@@ -42,10 +64,14 @@ public class ChessBoard {
      * Adds a chess piece to the chessboard
      *
      * @param position where to add the piece to
-     * @param piece    the piece to add
+     * @param piece    the piece to add, or null to empty the square
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRow() - 1][position.getColumn() - 1] = piece;
+        int square = square(position);
+        clearSquare(square);
+        if (piece != null) {
+            setSquare(square, bitboardIndex(piece.getTeamColor(), piece.getPieceType()));
+        }
     }
 
     /**
@@ -56,7 +82,197 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return squares[position.getRow() - 1][position.getColumn() - 1];
+        return getPiece(square(position));
+    }
+
+    /**
+     * Gets a chess piece on the chessboard by square index
+     *
+     * @param square square index, 0 (a1) through 63 (h8)
+     * @return Either the piece on the square, or null if it is empty
+     */
+    public ChessPiece getPiece(int square) {
+        int index = bitboardIndexAt(square);
+        return index < 0 ? null : ChessPiece.ofIndex(index);
+    }
+
+    /**
+     * @param color team of the pieces
+     * @param type  type of the pieces
+     * @return bitboard with a bit set for every square holding that piece
+     */
+    public long getBitboard(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceBitboards[bitboardIndex(color, type)];
+    }
+
+    /**
+     * @param color team to get the occupancy for
+     * @return bitboard of every square occupied by the given team
+     */
+    public long getOccupancy(ChessGame.TeamColor color) {
+        return colorOccupancy[color.ordinal()];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long getOccupancy() {
+        return occupied;
+    }
+
+    /**
+     * @param color team whose king to find
+     * @return square index of that team's king, or -1 if it has none
+     */
+    public int kingSquare(ChessGame.TeamColor color) {
+        long king = pieceBitboards[bitboardIndex(color, ChessPiece.PieceType.KING)];
+        return king == 0 ? -1 : Long.numberOfTrailingZeros(king);
+    }
+
+    /**
+     * @param square   square index to test
+     * @param byColor  team that may be attacking it
+     * @return true if any piece of that team attacks the square
+     */
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor byColor) {
+        return AttackTables.isSquareAttacked(this, square, byColor);
+    }
+
+    /**
+     * @return Zobrist hash of the piece placement; equal boards always have equal keys
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * @return sum of the middlegame scores of every piece, from White's point of view
+     * @see PieceSquareTables
+     */
+    public int getMiddlegameScore() {
+        return pieceSquareScores()[0];
+    }
+
+    /**
+     * @return sum of the endgame scores of every piece, from White's point of view
+     * @see PieceSquareTables
+     */
+    public int getEndgameScore() {
+        return pieceSquareScores()[1];
+    }
+
+    /**
+     * @return game phase, {@link PieceSquareTables#MAX_PHASE} with every piece on the board
+     * down to 0 with only kings and pawns; more than the maximum after promotions
+     */
+    public int getPhase() {
+        return pieceSquareScores()[2];
+    }
+
+    /**
+     * Converts a 1-indexed position into a square index
+     *
+     * @param position position on the board
+     * @return square index, 0 (a1) through 63 (h8)
+     */
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    public static int square(int row, int col) {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    static int bitboardIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    /**
+     * @param square square index
+     * @return bitboard index of the piece on the square, or -1 if it is empty
+     */
+    int bitboardIndexAt(int square) {
+        return mailbox()[square] - 1;
+    }
+
+    /**
+     * Places a piece on an empty square without looking anything up.
+     * Used by make/unmake, which already know what is on each square.
+     */
+    void putPiece(int square, int index) {
+        setSquare(square, index);
+    }
+
+    /**
+     * Removes a known piece from a square without looking anything up.
+     */
+    void removePiece(int square, int index) {
+        long bit = 1L << square;
+        pieceBitboards[index] &= ~bit;
+        colorOccupancy[index / 6] &= ~bit;
+        occupied &= ~bit;
+        zobristKey ^= Zobrist.piece(index, square);
+        mailbox()[square] = 0;
+        if (pieceSquareScores != null) {
+            pieceSquareScores[0] -= PieceSquareTables.middlegame(index, square);
+            pieceSquareScores[1] -= PieceSquareTables.endgame(index, square);
+            pieceSquareScores[2] -= PieceSquareTables.phase(index);
+        }
+    }
+
+    private void setSquare(int square, int index) {
+        long bit = 1L << square;
+        pieceBitboards[index] |= bit;
+        colorOccupancy[index / 6] |= bit;
+        occupied |= bit;
+        zobristKey ^= Zobrist.piece(index, square);
+        mailbox()[square] = (byte) (index + 1);
+        if (pieceSquareScores != null) {
+            pieceSquareScores[0] += PieceSquareTables.middlegame(index, square);
+            pieceSquareScores[1] += PieceSquareTables.endgame(index, square);
+            pieceSquareScores[2] += PieceSquareTables.phase(index);
+        }
+    }
+
+    private byte[] mailbox() {
+        if (mailbox == null) {
+            // first use, or a board read back by Gson, which only restores the bitboards
+            mailbox = new byte[64];
+            for (int index = 0; index < pieceBitboards.length; index++) {
+                long pieces = pieceBitboards[index];
+                while (pieces != 0) {
+                    mailbox[Long.numberOfTrailingZeros(pieces)] = (byte) (index + 1);
+                    pieces &= pieces - 1;
+                }
+            }
+        }
+        return mailbox;
+    }
+
+    private int[] pieceSquareScores() {
+        if (pieceSquareScores == null) {
+            // left null until something asks, so boards that are never evaluated don't pay for updates
+            int[] scores = new int[3];
+            for (int index = 0; index < pieceBitboards.length; index++) {
+                long pieces = pieceBitboards[index];
+                while (pieces != 0) {
+                    int square = Long.numberOfTrailingZeros(pieces);
+                    scores[0] += PieceSquareTables.middlegame(index, square);
+                    scores[1] += PieceSquareTables.endgame(index, square);
+                    scores[2] += PieceSquareTables.phase(index);
+                    pieces &= pieces - 1;
+                }
+            }
+            pieceSquareScores = scores;
+        }
+        return pieceSquareScores;
+    }
+
+    private void clearSquare(int square) {
+        int index = bitboardIndexAt(square);
+        if (index >= 0) {
+            removePiece(square, index);
+        }
     }
 
     /**
@@ -64,32 +280,37 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        squares = new ChessPiece[8][8];
+        Arrays.fill(pieceBitboards, 0L);
+        Arrays.fill(colorOccupancy, 0L);
+        occupied = 0L;
+        zobristKey = 0L;
+        mailbox = null;
+        pieceSquareScores = null;
 
         // White Pieces
-        addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(1, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 4), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(1, 6), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(1, 1), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(1, 2), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(1, 3), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(1, 4), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(1, 5), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(1, 6), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(1, 7), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(1, 8), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
         for (int i = 1; i <= 8; i++) {
-            addPiece(new ChessPosition(2, i), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(2, i), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
         }
 
         // Black Pieces
-        addPiece(new ChessPosition(8, 1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(8, 2), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 3), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(8, 6), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 7), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(8, 1), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(8, 2), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(8, 3), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(8, 4), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(8, 5), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(8, 6), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(8, 7), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(8, 8), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
         for (int i = 1; i <= 8; i++) {
-            addPiece(new ChessPosition(7, i), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(7, i), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
         }
     }
 
@@ -99,11 +320,11 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(squares, that.squares);
+        return Arrays.equals(pieceBitboards, that.pieceBitboards);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(squares);
+        return Long.hashCode(zobristKey);
     }
 }
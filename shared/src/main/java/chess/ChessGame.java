@@ -1,6 +1,10 @@
 package chess;
 
+import chess.calculators.AttackTables;
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
@@ -11,17 +15,67 @@ import java.util.Objects;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(StoredFormat.class)
 public class ChessGame {
+    // keys of the positions before the last HISTORY_SIZE moves; more than the 150 plies
+    // a repetition can reach back before the seventy-five-move rule ends the game
+    private static final int HISTORY_SIZE = 256;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
     private ChessBoard board;
     private TeamColor currentTurn;
     private boolean isGameOver = false;
 
+    private int castlingRights = CastlingRights.ALL;
+    // square behind a pawn that just moved two squares, if one of our pawns can take it; otherwise -1
+    private int enPassantSquare = -1;
+    // plies since the last capture or pawn move
+    private int halfmoveClock;
+    private int fullmoveNumber = 1;
+    // not stored: worked out again from the move log when a game is read, see rebuildHistory
+    private transient long[] keyHistory = new long[HISTORY_SIZE];
+    // number of moves played, so the newest key is at (historyLength - 1) % HISTORY_SIZE
+    private transient int historyLength;
+
+    // moves played through makeMove(ChessMove), and the position before the first of them
+    // as FEN, or null for the standard starting position: enough to replay the game.
+    // Replaced rather than changed in place, so copies can share it.
+    private int[] moveLog = new int[0];
+    private String startFen;
+
+    // status of the side to move, and the position key it was worked out for
+    private transient GameStatus cachedStatus;
+    private transient long cachedStatusKey;
+
     public ChessGame() {
         this.board = new ChessBoard();
         this.board.resetBoard();
         currentTurn = TeamColor.WHITE;
     }
 
+    /** Deep Copy Constructor
+     *
+     * @param original game to copy
+     * copies the board and the game state, so moves can be
+     * made on the copy (e.g. on another thread) without
+     * touching the original.
+     */
+    public ChessGame(ChessGame original) {
+        this.board = new ChessBoard(original.board);
+        this.currentTurn = original.currentTurn;
+        this.isGameOver = original.isGameOver;
+        this.castlingRights = original.castlingRights;
+        this.enPassantSquare = original.enPassantSquare;
+        this.halfmoveClock = original.halfmoveClock;
+        this.fullmoveNumber = original.fullmoveNumber;
+        this.keyHistory = original.keyHistory.clone();
+        this.historyLength = original.historyLength;
+        this.moveLog = original.moveLog;
+        this.startFen = original.startFen;
+        this.cachedStatus = original.cachedStatus;
+        this.cachedStatusKey = original.cachedStatusKey;
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -36,6 +90,7 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         currentTurn = team;
+        cachedStatus = null;
     }
 
     /**
@@ -60,132 +115,210 @@ public class ChessGame {
             return List.of();
         }
 
-        Collection<ChessMove> allMoves = currentPiece.pieceMoves(board, startPosition);
-        Collection<ChessMove> validMoves = new ArrayList<>();
+        // positions repeat a lot across games (openings especially), so the moves are shared through a cache
+        int[] moves = cachedMoves(ChessBoard.square(startPosition));
+        List<ChessMove> boxed = new ArrayList<>(moves.length);
+        for (int move : moves) {
+            boxed.add(Move.toChessMove(move));
+        }
+        return boxed;
+    }
+
+    private int[] cachedMoves(int square) {
+        return LegalMoveCache.shared().legalMoves(this, square);
+    }
 
-        for(ChessMove move : allMoves) {
-            ChessBoard boardCopy = new ChessBoard(board);
+    /**
+     * Makes a move in a chess game
+     *
+     * @param move chess move to perform
+     * @throws InvalidMoveException if move is invalid, or the game is over,
+     *                              including by a claimed or automatic draw
+     */
+    public void makeMove(ChessMove move) throws InvalidMoveException {
+        if (isGameOver || (currentTurn != null && getStatus().isGameOver())) {
+            throw new InvalidMoveException("Game is over");
+        }
+        int packed = Move.of(move);
+        ChessPiece piece = board.getPiece(Move.from(packed));
+
+        // Validate the move
+        if (piece == null || piece.getTeamColor() != getTeamTurn()) {
+            throw new InvalidMoveException("Invalid move");
+        }
+        if (!contains(cachedMoves(Move.from(packed)), packed)) {
+            throw new InvalidMoveException("Invalid move");
+        }
 
-            ChessPiece pieceToMove = boardCopy.getPiece(move.getStartPosition());
+        logMove(packed);
+        // Update the board & switch turns
+        makeMove(packed, new MoveUndo());
+    }
 
-            boardCopy.addPiece(move.getEndPosition(), pieceToMove);
-            boardCopy.addPiece(move.getStartPosition(), null);
+    private void logMove(int move) {
+        if (moveLog.length == 0) {
+            String fen = Fen.toFen(this);
+            startFen = fen.equals(Fen.START_POSITION) ? null : fen;
+        }
+        int[] log = Arrays.copyOf(moveLog, moveLog.length + 1);
+        log[moveLog.length] = move;
+        moveLog = log;
+    }
 
-            if (!isKingInCheckOnBoard(boardCopy, pieceToMove.getTeamColor())) {
-                validMoves.add(move);
-            }
+    /**
+     * @return every move played through {@link #makeMove(ChessMove)} since the
+     * game started or its board was last set, in order
+     */
+    public List<ChessMove> getMoveLog() {
+        List<ChessMove> moves = new ArrayList<>(moveLog.length);
+        for (int move : moveLog) {
+            moves.add(Move.toChessMove(move));
         }
-        return validMoves;
+        return moves;
     }
 
-    /** Helper for isInCheck() & validMoves()
-     * allows for the deep copy board to be used
-     *
-     * @param currentBoard current board working in, whether copy/original
-     * @param teamColor which team to check for check
-     * @return True if the specified team is in check
+    /**
+     * @return FEN of the position the move log starts from
      */
-    private boolean isKingInCheckOnBoard(ChessBoard currentBoard, TeamColor teamColor) {
-        // find king's position
-        ChessPosition kingPos = findKing(currentBoard, teamColor);
-
-        // iterate through every piece, looking for possible enemies
-        for(int row = 1; row <= 8; row++) {
-            for(int col = 1; col <= 8; col++) {
-                ChessPosition currentPos = new ChessPosition(row, col);
-                ChessPiece currentPiece = currentBoard.getPiece(currentPos);
-                if(currentPiece != null && currentPiece.getTeamColor() != teamColor) {
-                    if(enemyAttacksKing(currentBoard, currentPos, currentPiece, kingPos)) {
-                        return true;
-                    }
-                }
+    public String getStartFen() {
+        return startFen == null ? Fen.START_POSITION : startFen;
+    }
+
+    private static boolean contains(int[] moves, int move) {
+        for (int legal : moves) {
+            if (Move.sameMove(legal, move)) {
+                return true;
             }
         }
         return false;
     }
 
     /**
-     * Makes a move in a chess game
+     * Makes a move in place without checking that it is valid, recording what
+     * is needed to take it back. The move must start on a square holding a
+     * piece; the turn passes to the other team.
      *
      * @param move chess move to perform
-     * @throws InvalidMoveException if move is invalid
+     * @param undo record to fill in, later passed to {@link #unmakeMove(MoveUndo)}
      */
-    public void makeMove(ChessMove move) throws InvalidMoveException {
-        ChessPosition startPosition = move.getStartPosition();
-        ChessPiece piece = board.getPiece(startPosition);
+    public void makeMove(ChessMove move, MoveUndo undo) {
+        makeMove(Move.of(move), undo);
+    }
 
-        // Validate the move
-        if (piece == null || piece.getTeamColor() != getTeamTurn() || !validMoves(startPosition).contains(move)) {
-            throw new InvalidMoveException("Invalid move");
+    /**
+     * Same as {@link #makeMove(ChessMove, MoveUndo)}, for a move packed by {@link Move}
+     *
+     * @param move packed move to perform
+     * @param undo record to fill in, later passed to {@link #unmakeMove(MoveUndo)}
+     */
+    public void makeMove(int move, MoveUndo undo) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int moved = board.bitboardIndexAt(from);
+        int captured = board.bitboardIndexAt(to);
+        int capturedSquare = to;
+        TeamColor color = moved < 6 ? TeamColor.WHITE : TeamColor.BLACK;
+        ChessPiece.PieceType type = TYPES[moved % 6];
+
+        undo.previousTurn = currentTurn;
+        undo.previousCastlingRights = castlingRights;
+        undo.previousEnPassantSquare = enPassantSquare;
+        undo.previousHalfmoveClock = halfmoveClock;
+        keyHistory[historyLength % HISTORY_SIZE] = positionKey();
+        historyLength++;
+
+        // a pawn moving onto the en passant square takes the pawn beside it
+        if (type == ChessPiece.PieceType.PAWN && to == enPassantSquare) {
+            capturedSquare = color == TeamColor.WHITE ? to - 8 : to + 8;
+            captured = board.bitboardIndexAt(capturedSquare);
         }
 
-        // Update the board
-        ChessPiece pieceToPlace = board.getPiece(startPosition);
-
         // Handle pawn promotion
-        if (move.getPromotionPiece() != null) {
-            pieceToPlace = new ChessPiece(currentTurn, move.getPromotionPiece());
+        int placed = moved;
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        if (promotion != null) {
+            placed = ChessBoard.bitboardIndex(color, promotion);
         }
 
-        board.addPiece(move.getEndPosition(), pieceToPlace);
-        board.addPiece(startPosition, null);
+        if (captured >= 0) {
+            board.removePiece(capturedSquare, captured);
+        }
+        board.removePiece(from, moved);
+        board.putPiece(to, placed);
+
+        // castling: the king moves two squares, the rook lands on the square it passed
+        int rookFrom = -1;
+        int rookTo = -1;
+        if (type == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            rookFrom = to > from ? from + 3 : from - 4;
+            rookTo = (from + to) / 2;
+            int rook = board.bitboardIndexAt(rookFrom);
+            board.removePiece(rookFrom, rook);
+            board.putPiece(rookTo, rook);
+        }
+
+        undo.from = from;
+        undo.to = to;
+        undo.movedIndex = moved;
+        undo.placedIndex = placed;
+        undo.capturedIndex = captured;
+        undo.capturedSquare = capturedSquare;
+        undo.rookFrom = rookFrom;
+        undo.rookTo = rookTo;
+
+        castlingRights = CastlingRights.afterMove(castlingRights, from, to);
+        boolean irreversible = type == ChessPiece.PieceType.PAWN || captured >= 0;
+        halfmoveClock = irreversible ? 0 : halfmoveClock + 1;
+        if (currentTurn == TeamColor.BLACK) {
+            fullmoveNumber++;
+        }
 
         // Switch turns
-        if (currentTurn == TeamColor.WHITE) {
-            setTeamTurn(TeamColor.BLACK);
-        } else {
-            setTeamTurn(TeamColor.WHITE);
+        currentTurn = (currentTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        enPassantSquare = -1;
+        if (type == ChessPiece.PieceType.PAWN && Math.abs(to - from) == 16) {
+            setEnPassantSquare((from + to) / 2);
         }
+        cachedStatus = null;
     }
 
     /**
-     * Determines if the given team is in check
+     * Takes back a move made with {@link #makeMove(ChessMove, MoveUndo)}.
+     * Moves must be taken back in the reverse order they were made.
      *
-     * @param teamColor which team to check for check
-     * @return True if the specified team is in check
+     * @param undo record filled in when the move was made
      */
-    public boolean isInCheck(TeamColor teamColor) {
-        return isKingInCheckOnBoard(this.board, teamColor);
-    }
+    public void unmakeMove(MoveUndo undo) {
+        if (undo.rookFrom >= 0) {
+            int rook = board.bitboardIndexAt(undo.rookTo);
+            board.removePiece(undo.rookTo, rook);
+            board.putPiece(undo.rookFrom, rook);
+        }
+        board.removePiece(undo.to, undo.placedIndex);
+        board.putPiece(undo.from, undo.movedIndex);
+        if (undo.capturedIndex >= 0) {
+            board.putPiece(undo.capturedSquare, undo.capturedIndex);
+        }
 
-    /**
-     * Custom helper function that checks if an enemy piece has the king in its path
-     * Helps isInCheck()
-     *
-     * @param currentPos position of enemy piece, we will iterate through the moves of this piece
-     * @param currentPiece enemy piece which is being checked
-     * @param kingPos position of current team king. if this king is in the enemy's path, return true
-     */
-    private boolean enemyAttacksKing(ChessBoard currentBoard, ChessPosition currentPos, ChessPiece currentPiece, ChessPosition kingPos) {
-        for(ChessMove move : currentPiece.pieceMoves(currentBoard, currentPos)) {
-            ChessPosition endPos = move.getEndPosition();
-            if(endPos.equals(kingPos)) {
-                return true;
-            }
+        if (undo.previousTurn == TeamColor.BLACK) {
+            fullmoveNumber--;
         }
-        return false;
+        currentTurn = undo.previousTurn;
+        castlingRights = undo.previousCastlingRights;
+        enPassantSquare = undo.previousEnPassantSquare;
+        halfmoveClock = undo.previousHalfmoveClock;
+        historyLength--;
+        cachedStatus = null;
     }
 
     /**
-     * Custom helper function to find the position of the king
-     * Helps isInCheck()
+     * Determines if the given team is in check
      *
-     * @param teamColor which team to find the king for
-     * @return ChessPosition position for the given team's king
-     */
-    private ChessPosition findKing(ChessBoard currentBoard, TeamColor teamColor) {
-        for(int row = 1; row <= 8; row++) {
-            for(int col = 1; col <= 8; col++) {
-                ChessPosition currentPos = new ChessPosition(row, col);
-                ChessPiece currentPiece = currentBoard.getPiece(currentPos);
-                if((currentPiece != null) &&
-                        (currentPiece.getTeamColor() == teamColor) &&
-                        (currentPiece.getPieceType() == ChessPiece.PieceType.KING)) {
-                    return currentPos;
-                }
-            }
-        }
-        return null;
+     * @param teamColor which team to check for check
+     * @return True if the specified team is in check
+     */
+    public boolean isInCheck(TeamColor teamColor) {
+        return MoveGenerator.checkers(board, teamColor) != 0;
     }
 
     /**
@@ -195,6 +328,10 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
+        if (teamColor == currentTurn) {
+            return getStatus() == GameStatus.CHECKMATE;
+        }
+
         // Condition 1 - current team MUST be in check
         if(!isInCheck(teamColor)) {
             return false;
@@ -212,6 +349,10 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
+        if (teamColor == currentTurn) {
+            return getStatus() == GameStatus.STALEMATE;
+        }
+
         // condition 1 - current team MUST NOT be in check
         if(isInCheck(teamColor)) {
             return false;
@@ -227,18 +368,128 @@ public class ChessGame {
      * @return True if there is at least ONE valid move left for the given team
      */
     private boolean hasNoMovesLeft(TeamColor teamColor) {
-        for(int row = 1; row <= 8; row++) {
-            for(int col = 1; col <= 8; col++) {
-                ChessPosition currentPos = new ChessPosition(row, col);
-                ChessPiece currentPiece = board.getPiece(currentPos);
-                if(currentPiece != null && currentPiece.getTeamColor() == teamColor) {
-                    if(!validMoves(currentPos).isEmpty()) {
-                        return false;
-                    }
-                }
+        if (teamColor == currentTurn) {
+            return !MoveGenerator.hasLegalMove(this);
+        }
+        return !MoveGenerator.hasLegalMove(board, teamColor);
+    }
+
+    /**
+     * Gets the state of the game for the team whose turn it is. Working it out
+     * means generating moves, so the result is kept until the next move or
+     * change to the position; asking again costs a key comparison.
+     *
+     * @return status of the side to move, NORMAL if it is nobody's turn
+     */
+    public GameStatus getStatus() {
+        if (currentTurn == null) {
+            return GameStatus.NORMAL;
+        }
+        long key = positionKey();
+        if (cachedStatus == null || cachedStatusKey != key) {
+            cachedStatus = computeStatus();
+            cachedStatusKey = key;
+        }
+        return cachedStatus;
+    }
+
+    /**
+     * Works out the status of the side to move from scratch, without looking at
+     * or updating the one {@link #getStatus()} keeps. Callers normally want
+     * getStatus; this is for measuring the work it saves.
+     *
+     * @return status of the side to move; the side to move must be set
+     */
+    public GameStatus computeStatus() {
+        boolean inCheck = isInCheck(currentTurn);
+        if (!MoveGenerator.hasLegalMove(this)) {
+            return inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+        }
+        if (hasInsufficientMaterial()) {
+            return GameStatus.DRAW_INSUFFICIENT_MATERIAL;
+        }
+        // the fifty-move rule and threefold repetition have to be claimed; these end the game by themselves
+        if (halfmoveClock >= 150) {
+            return GameStatus.DRAW_SEVENTY_FIVE_MOVES;
+        }
+        if (isRepetition(5)) {
+            return GameStatus.DRAW_FIVEFOLD_REPETITION;
+        }
+        return inCheck ? GameStatus.CHECK : GameStatus.NORMAL;
+    }
+
+    /**
+     * @return the draw the side to move may claim, DRAW_FIFTY_MOVES or
+     * DRAW_REPETITION, or null if there is none or the game is already over
+     */
+    public GameStatus getClaimableDraw() {
+        if (isGameOver || currentTurn == null || getStatus().isGameOver()) {
+            return null;
+        }
+        if (halfmoveClock >= 100) {
+            return GameStatus.DRAW_FIFTY_MOVES;
+        }
+        if (isRepetition(3)) {
+            return GameStatus.DRAW_REPETITION;
+        }
+        return null;
+    }
+
+    /**
+     * Ends the game in a draw by the fifty-move rule or threefold repetition,
+     * on behalf of the side to move
+     *
+     * @return the draw that was claimed
+     * @throws InvalidMoveException if the game is over or there is no draw to claim
+     */
+    public GameStatus claimDraw() throws InvalidMoveException {
+        if (isGameOver || currentTurn == null || getStatus().isGameOver()) {
+            throw new InvalidMoveException("Game is over");
+        }
+        GameStatus draw = getClaimableDraw();
+        if (draw == null) {
+            throw new InvalidMoveException("No draw to claim");
+        }
+        isGameOver = true;
+        return draw;
+    }
+
+    /**
+     * Checks whether the current position has occurred the given number of
+     * times. Only positions since the last capture or pawn move can match,
+     * and only every other one has the same side to move, so at most
+     * halfmoveClock / 2 keys are compared.
+     *
+     * @param times occurrences to look for, counting the current position
+     * @return true if the position has occurred at least that many times
+     */
+    public boolean isRepetition(int times) {
+        long key = positionKey();
+        int reach = Math.min(halfmoveClock, Math.min(historyLength, HISTORY_SIZE));
+        int seen = 1;
+        for (int back = 2; back <= reach && seen < times; back += 2) {
+            if (keyHistory[(historyLength - back) % HISTORY_SIZE] == key) {
+                seen++;
             }
         }
-        return true;
+        return seen >= times;
+    }
+
+    /**
+     * Only kings, plus at most one knight or bishop between them
+     */
+    private boolean hasInsufficientMaterial() {
+        long minors = 0;
+        for (TeamColor color : TeamColor.values()) {
+            if ((board.getBitboard(color, ChessPiece.PieceType.PAWN)
+                    | board.getBitboard(color, ChessPiece.PieceType.ROOK)
+                    | board.getBitboard(color, ChessPiece.PieceType.QUEEN)) != 0) {
+                return false;
+            }
+            minors |= board.getBitboard(color, ChessPiece.PieceType.KNIGHT)
+                    | board.getBitboard(color, ChessPiece.PieceType.BISHOP);
+        }
+        return Long.bitCount(minors) <= 1;
     }
 
     /**
@@ -248,6 +499,49 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        // a board on its own has no history: assume nothing has moved that still stands at home
+        castlingRights = CastlingRights.infer(board);
+        enPassantSquare = -1;
+        halfmoveClock = 0;
+        historyLength = 0;
+        moveLog = new int[0];
+        startFen = null;
+        cachedStatus = null;
+    }
+
+    /**
+     * Fills in what a game stored before castling and the draw rules were
+     * tracked doesn't have, as {@link #setBoard(ChessBoard)} does, and starts
+     * the move log from the stored position
+     */
+    void upgradeStoredGame() {
+        setBoard(board);
+        String fen = Fen.toFen(this);
+        startFen = fen.equals(Fen.START_POSITION) ? null : fen;
+    }
+
+    /**
+     * Fills in the position keys, which aren't stored, by replaying the move
+     * log from its start position, so repetitions still count after a game is
+     * read back. If the log doesn't lead to the current position (the game was
+     * changed some other way), the history starts from the current position.
+     */
+    void rebuildHistory() {
+        keyHistory = new long[HISTORY_SIZE];
+        historyLength = 0;
+        if (moveLog.length == 0) {
+            return;
+        }
+        ChessGame replay = Fen.parse(getStartFen());
+        MoveUndo undo = new MoveUndo();
+        for (int move : moveLog) {
+            replay.makeMove(move, undo);
+        }
+        if (replay.positionKey() == positionKey()) {
+            keyHistory = replay.keyHistory;
+            historyLength = replay.historyLength;
+        }
+        cachedStatus = null;
     }
 
     /**
@@ -259,6 +553,94 @@ public class ChessGame {
         return board;
     }
 
+    /**
+     * @return castling rights as a mask of {@link CastlingRights} bits
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * Overrides the rights worked out by {@link #setBoard(ChessBoard)}, e.g.
+     * from a FEN string. Rights whose king or rook isn't at home are dropped.
+     *
+     * @param castlingRights mask of {@link CastlingRights} bits
+     */
+    public void setCastlingRights(int castlingRights) {
+        this.castlingRights = castlingRights & CastlingRights.infer(board);
+        cachedStatus = null;
+    }
+
+    /**
+     * @return square a pawn can be taken on en passant by the side to move, or -1
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * Sets the square behind a pawn that has just moved two squares. It is
+     * only kept if a pawn of the side to move stands ready to take it, so
+     * positions that only differ by an en passant square nobody can use
+     * count as the same position.
+     *
+     * @param square square index the pawn passed over, or -1
+     */
+    public void setEnPassantSquare(int square) {
+        enPassantSquare = -1;
+        if (square >= 0 && currentTurn != null) {
+            TeamColor them = currentTurn == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+            long capturers = board.getBitboard(currentTurn, ChessPiece.PieceType.PAWN)
+                    & AttackTables.pawnAttacks(them, square);
+            if (capturers != 0) {
+                enPassantSquare = square;
+            }
+        }
+        cachedStatus = null;
+    }
+
+    /**
+     * @return plies since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public void setHalfmoveClock(int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+        cachedStatus = null;
+    }
+
+    /**
+     * @return number of the current full move, starting at 1 and going up after black moves
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    public void setFullmoveNumber(int fullmoveNumber) {
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * Gets a 64-bit Zobrist key identifying the current position: the pieces
+     * on the board, the side to move, the castling rights and the en passant
+     * file. The board keeps its part up to date as pieces move, so this costs
+     * a few XORs.
+     *
+     * @return key that is equal for equal positions
+     */
+    public long positionKey() {
+        long key = board.getZobristKey() ^ Zobrist.castling(castlingRights);
+        if (currentTurn == TeamColor.BLACK) {
+            key ^= Zobrist.blackToMove();
+        }
+        if (enPassantSquare >= 0) {
+            key ^= Zobrist.enPassantFile(enPassantSquare % 8);
+        }
+        return key;
+    }
+
     public boolean isGameOver() {
         return isGameOver;
     }
@@ -273,11 +655,12 @@ public class ChessGame {
             return false;
         }
         ChessGame chessGame = (ChessGame) o;
-        return Objects.equals(board, chessGame.board) && currentTurn == chessGame.currentTurn;
+        return Objects.equals(board, chessGame.board) && currentTurn == chessGame.currentTurn
+                && castlingRights == chessGame.castlingRights && enPassantSquare == chessGame.enPassantSquare;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(board, currentTurn);
+        return Long.hashCode(positionKey());
     }
 }
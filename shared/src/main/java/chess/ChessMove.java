@@ -44,6 +44,62 @@ public class ChessMove {
         return promotionPiece;
     }
 
+    /**
+     * Writes the move in long algebraic (UCI) form, e.g. "e2e4" or "e7e8q"
+     *
+     * @return move text
+     */
+    public String toUci() {
+        String text = squareName(startPosition) + squareName(endPosition);
+        if (promotionPiece != null) {
+            text += switch (promotionPiece) {
+                case QUEEN -> "q";
+                case ROOK -> "r";
+                case BISHOP -> "b";
+                case KNIGHT -> "n";
+                default -> "";
+            };
+        }
+        return text;
+    }
+
+    /**
+     * Reads a move in long algebraic (UCI) form, e.g. "e2e4" or "e7e8q"
+     *
+     * @param text move text
+     * @return the move
+     * @throws IllegalArgumentException if the text isn't a move
+     */
+    public static ChessMove fromUci(String text) {
+        if (text.length() < 4 || text.length() > 5) {
+            throw new IllegalArgumentException("Bad move: " + text);
+        }
+        ChessPiece.PieceType promotion = null;
+        if (text.length() == 5) {
+            promotion = switch (text.charAt(4)) {
+                case 'q' -> ChessPiece.PieceType.QUEEN;
+                case 'r' -> ChessPiece.PieceType.ROOK;
+                case 'b' -> ChessPiece.PieceType.BISHOP;
+                case 'n' -> ChessPiece.PieceType.KNIGHT;
+                default -> throw new IllegalArgumentException("Bad promotion piece: " + text);
+            };
+        }
+        return new ChessMove(parseSquare(text, 0), parseSquare(text, 2), promotion);
+    }
+
+    private static String squareName(ChessPosition position) {
+        return "" + (char) ('a' + position.getColumn() - 1) + position.getRow();
+    }
+
+    private static ChessPosition parseSquare(String text, int offset) {
+        int col = text.charAt(offset) - 'a' + 1;
+        int row = text.charAt(offset + 1) - '0';
+        if (col < 1 || col > 8 || row < 1 || row > 8) {
+            throw new IllegalArgumentException("Bad square in move: " + text);
+        }
+        return ChessPosition.of(row, col);
+    }
+
     @Override
     public String toString() {
         return String.format("%s%s", startPosition, endPosition);
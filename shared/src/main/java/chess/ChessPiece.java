@@ -2,8 +2,10 @@ package chess;
 
 import chess.calculators.*;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -14,6 +16,26 @@ import java.util.Objects;
  */
 public class ChessPiece {
 
+    // calculators hold no state, so one of each is shared by every piece
+    private static final Map<PieceType, PieceMovesCalculator> CALCULATORS = new EnumMap<>(Map.of(
+            PieceType.KING, new KingMovesCalculator(),
+            PieceType.QUEEN, new QueenMovesCalculator(),
+            PieceType.BISHOP, new BishopMovesCalculator(),
+            PieceType.KNIGHT, new KnightMovesCalculator(),
+            PieceType.ROOK, new RookMovesCalculator(),
+            PieceType.PAWN, new PawnMovesCalculator()));
+
+    // one shared instance per color & type, indexed like ChessBoard's bitboards
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[ChessBoard.bitboardIndex(color, type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type;
 
@@ -22,6 +44,25 @@ public class ChessPiece {
         this.type = type;
     }
 
+    /**
+     * Gets the shared instance for a piece instead of allocating a new one.
+     * Pieces are immutable, so the same instance can sit on any number of squares.
+     *
+     * @param pieceColor team of the piece
+     * @param type type of the piece
+     * @return piece of that color and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, PieceType type) {
+        return PIECES[ChessBoard.bitboardIndex(pieceColor, type)];
+    }
+
+    /**
+     * @param bitboardIndex color & type index as used by ChessBoard
+     */
+    static ChessPiece ofIndex(int bitboardIndex) {
+        return PIECES[bitboardIndex];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -56,33 +97,19 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        // determine which MoveCalculator to use, according to pieceType
-        PieceMovesCalculator calculator;
-        switch(type) {
-            case BISHOP:
-                calculator = new BishopMovesCalculator();
-                break;
-            case KING:
-                calculator = new KingMovesCalculator();
-                break;
-            case KNIGHT:
-                calculator = new KnightMovesCalculator();
-                break;
-            case PAWN:
-                calculator = new PawnMovesCalculator();
-                break;
-            case QUEEN:
-                calculator = new QueenMovesCalculator();
-                break;
-            case ROOK:
-                calculator = new RookMovesCalculator();
-                break;
-            default:
-                return List.of();
-        }
-
-        return calculator.pieceMoves(board, myPosition);
+        Collection<ChessMove> moves = new ArrayList<>();
+        pieceMoves(board, myPosition, moves);
+        return moves;
+    }
 
+    /**
+     * Same as {@link #pieceMoves(ChessBoard, ChessPosition)}, but adds the moves
+     * to a collection supplied by the caller so it can be reused between calls
+     *
+     * @param moves collection to add the moves to
+     */
+    public void pieceMoves(ChessBoard board, ChessPosition myPosition, Collection<ChessMove> moves) {
+        CALCULATORS.get(type).pieceMoves(board, myPosition, moves);
     }
 
     @Override
@@ -12,11 +12,43 @@ public class ChessPosition {
     private final int row;
     private final int col;
 
+    // one shared instance per square; positions are immutable so they can be handed out freely
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new ChessPosition(square / 8 + 1, square % 8 + 1);
+        }
+    }
+
     public ChessPosition(int row, int col) {
         this.row = row;
         this.col = col;
     }
 
+    /**
+     * Gets the shared instance for a position instead of allocating a new one.
+     * Positions off the board aren't cached and get a new instance.
+     *
+     * @param row 1-indexed row
+     * @param col 1-indexed column
+     * @return position with that row and column
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return new ChessPosition(row, col);
+        }
+        return SQUARES[(row - 1) * 8 + (col - 1)];
+    }
+
+    /**
+     * @param square square index, 0 (a1) through 63 (h8)
+     * @return shared instance for that square
+     */
+    public static ChessPosition ofSquare(int square) {
+        return SQUARES[square];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -0,0 +1,177 @@
+package chess;
+
+import java.util.Map;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation, e.g.
+ * <pre>rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1</pre>
+ * Only the piece placement and the side to move are required. Missing
+ * castling rights are worked out from the kings and rooks still on their
+ * home squares, and missing clocks start at 0 and 1. An en passant square
+ * is only kept if the side to move can actually take on it, so it may not
+ * be written back out.
+ */
+public final class Fen {
+
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    // in CastlingRights bit order: white kingside, white queenside, black kingside, black queenside
+    private static final String CASTLING_CHARS = "KQkq";
+
+    private static final Map<Character, ChessPiece.PieceType> CHAR_TO_TYPE = Map.of(
+            'p', ChessPiece.PieceType.PAWN,
+            'n', ChessPiece.PieceType.KNIGHT,
+            'b', ChessPiece.PieceType.BISHOP,
+            'r', ChessPiece.PieceType.ROOK,
+            'q', ChessPiece.PieceType.QUEEN,
+            'k', ChessPiece.PieceType.KING);
+
+    private Fen() {
+    }
+
+    /**
+     * Builds a game from a FEN string
+     *
+     * @param fen position to load
+     * @return new game set up in that position
+     * @throws IllegalArgumentException if the string isn't valid FEN
+     */
+    public static ChessGame parse(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 2) {
+            throw new IllegalArgumentException("FEN needs at least a board and a side to move: " + fen);
+        }
+
+        ChessBoard board = new ChessBoard();
+        int row = 8;
+        int col = 1;
+        for (char c : fields[0].toCharArray()) {
+            if (c == '/') {
+                row--;
+                col = 1;
+            } else if (Character.isDigit(c)) {
+                col += c - '0';
+            } else {
+                ChessPiece.PieceType type = CHAR_TO_TYPE.get(Character.toLowerCase(c));
+                if (type == null || row < 1 || col > 8) {
+                    throw new IllegalArgumentException("Bad FEN board: " + fields[0]);
+                }
+                ChessGame.TeamColor color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+                board.addPiece(ChessPosition.of(row, col), ChessPiece.of(color, type));
+                col++;
+            }
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        switch (fields[1]) {
+            case "w" -> game.setTeamTurn(ChessGame.TeamColor.WHITE);
+            case "b" -> game.setTeamTurn(ChessGame.TeamColor.BLACK);
+            default -> throw new IllegalArgumentException("Bad FEN side to move: " + fields[1]);
+        }
+        if (fields.length > 2) {
+            game.setCastlingRights(parseCastling(fields[2]));
+        }
+        if (fields.length > 3 && !fields[3].equals("-")) {
+            game.setEnPassantSquare(parseSquare(fields[3]));
+        }
+        try {
+            if (fields.length > 4) {
+                game.setHalfmoveClock(Integer.parseInt(fields[4]));
+            }
+            if (fields.length > 5) {
+                game.setFullmoveNumber(Integer.parseInt(fields[5]));
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad FEN move counters: " + fen);
+        }
+        return game;
+    }
+
+    /**
+     * Writes a game's position as FEN
+     *
+     * @param game game to describe
+     * @return FEN string for the current position
+     */
+    public static String toFen(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        StringBuilder fen = new StringBuilder();
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(ChessBoard.square(row, col));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(pieceChar(piece));
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+        fen.append(game.getTeamTurn() == ChessGame.TeamColor.BLACK ? " b " : " w ");
+
+        int rights = game.getCastlingRights();
+        if (rights == CastlingRights.NONE) {
+            fen.append('-');
+        }
+        for (int i = 0; i < CASTLING_CHARS.length(); i++) {
+            if ((rights & (1 << i)) != 0) {
+                fen.append(CASTLING_CHARS.charAt(i));
+            }
+        }
+
+        int enPassant = game.getEnPassantSquare();
+        if (enPassant < 0) {
+            fen.append(" -");
+        } else {
+            fen.append(' ').append((char) ('a' + enPassant % 8)).append(enPassant / 8 + 1);
+        }
+        fen.append(' ').append(game.getHalfmoveClock()).append(' ').append(game.getFullmoveNumber());
+        return fen.toString();
+    }
+
+    private static int parseCastling(String field) {
+        if (field.equals("-")) {
+            return CastlingRights.NONE;
+        }
+        int rights = CastlingRights.NONE;
+        for (char c : field.toCharArray()) {
+            int bit = CASTLING_CHARS.indexOf(c);
+            if (bit < 0) {
+                throw new IllegalArgumentException("Bad FEN castling rights: " + field);
+            }
+            rights |= 1 << bit;
+        }
+        return rights;
+    }
+
+    private static int parseSquare(String field) {
+        if (field.length() != 2 || field.charAt(0) < 'a' || field.charAt(0) > 'h'
+                || field.charAt(1) < '1' || field.charAt(1) > '8') {
+            throw new IllegalArgumentException("Bad FEN en passant square: " + field);
+        }
+        return ChessBoard.square(field.charAt(1) - '0', field.charAt(0) - 'a' + 1);
+    }
+
+    private static char pieceChar(ChessPiece piece) {
+        char c = switch (piece.getPieceType()) {
+            case PAWN -> 'p';
+            case KNIGHT -> 'n';
+            case BISHOP -> 'b';
+            case ROOK -> 'r';
+            case QUEEN -> 'q';
+            case KING -> 'k';
+        };
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(c) : c;
+    }
+}
@@ -0,0 +1,36 @@
+package chess;
+
+/**
+ * State of a game from the point of view of the team whose turn it is
+ */
+public enum GameStatus {
+    NORMAL,
+    CHECK,
+    CHECKMATE,
+    STALEMATE,
+    /** Neither side has enough material left to deliver checkmate */
+    DRAW_INSUFFICIENT_MATERIAL,
+    /**
+     * A hundred plies without a capture or pawn move. Only a draw once the
+     * side to move claims it, so it comes from {@link ChessGame#getClaimableDraw()}
+     * rather than from the status.
+     */
+    DRAW_FIFTY_MOVES,
+    /**
+     * The same position, with the same side to move, has occurred three times.
+     * Claimed like {@link #DRAW_FIFTY_MOVES}.
+     */
+    DRAW_REPETITION,
+    /** A hundred and fifty plies without a capture or pawn move */
+    DRAW_SEVENTY_FIVE_MOVES,
+    /** The same position, with the same side to move, has occurred five times */
+    DRAW_FIVEFOLD_REPETITION;
+
+    /**
+     * @return true if no more moves can be played, which for the claimable
+     * draws means once they have been claimed
+     */
+    public boolean isGameOver() {
+        return this != NORMAL && this != CHECK;
+    }
+}
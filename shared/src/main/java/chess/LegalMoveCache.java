@@ -0,0 +1,144 @@
+package chess;
+
+import java.io.Serial;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of the legal moves of a piece, keyed by position key and
+ * the square the piece stands on. Safe to share between threads.
+ * <p>
+ * Entries are spread over a number of segments, each an access-ordered
+ * LinkedHashMap guarded by its own lock, so threads working on different
+ * positions rarely wait on each other. Each segment evicts its least
+ * recently used entry once it is full.
+ */
+public class LegalMoveCache {
+    private static final int SEGMENTS = 16;
+    private static final int DEFAULT_CAPACITY = 16_384;
+
+    private static final LegalMoveCache SHARED = new LegalMoveCache(DEFAULT_CAPACITY);
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param capacity maximum number of entries, spread evenly over the segments
+     */
+    public LegalMoveCache(int capacity) {
+        int perSegment = Math.max(1, capacity / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    /**
+     * @return the cache used by {@link ChessGame#validMoves(ChessPosition)}
+     */
+    public static LegalMoveCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Gets the legal moves of the piece on a square, generating and storing
+     * them if they aren't cached yet
+     *
+     * @param game   game in the position to look up
+     * @param square square of the piece; must not be empty
+     * @return packed moves, shared with every later lookup of the same position
+     * and square; only {@link ChessGame#validMoves(ChessPosition)}, which copies
+     * them out, may see the array
+     */
+    int[] legalMoves(ChessGame game, int square) {
+        Key key = new Key(game.positionKey(), square);
+        Segment segment = segmentFor(key);
+        int[] moves;
+        synchronized (segment) {
+            moves = segment.get(key);
+        }
+        if (moves != null) {
+            hits.increment();
+            return moves;
+        }
+
+        // generate outside the lock; two threads missing at once just both store the same moves
+        misses.increment();
+        MoveList list = new MoveList();
+        MoveGenerator.legalMoves(game, square, list);
+        moves = new int[list.size()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = list.get(i);
+        }
+        synchronized (segment) {
+            segment.put(key, moves);
+        }
+        return moves;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return fraction of lookups answered from the cache, 0 if there were none
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Empties the cache and resets the counters
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    private Segment segmentFor(Key key) {
+        // high bits of the key, since the low bits also pick the LinkedHashMap bucket
+        return segments[(int) (key.positionKey() >>> 60) & (SEGMENTS - 1)];
+    }
+
+    private record Key(long positionKey, int square) {
+    }
+
+    private static class Segment extends LinkedHashMap<Key, int[]> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, int[]> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package chess;
+
+/**
+ * Moves packed into a single int, for move generation and search where
+ * allocating a {@link ChessMove} per move adds up.
+ * <pre>
+ * bits  0-5   start square (0 = a1 ... 63 = h8)
+ * bits  6-11  end square
+ * bits 12-14  promotion piece, 0 for none, otherwise PieceType ordinal + 1
+ * bits 16-18  flags: {@link #CAPTURE}, {@link #CASTLE}, {@link #EN_PASSANT}
+ * </pre>
+ * The flags are extra information filled in by the generator; two moves
+ * with the same squares and promotion are the same move whatever their flags.
+ * No legal move starts and ends on the same square, so 0 can be used as
+ * "no move".
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    /** The move takes an enemy piece */
+    public static final int CAPTURE = 1 << 16;
+    /** The king moves two squares and the rook jumps over it */
+    public static final int CASTLE = 1 << 17;
+    /** A pawn takes the pawn that just moved two squares past it; also flagged as a capture */
+    public static final int EN_PASSANT = 1 << 18;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final int PROMOTION_MASK = 0x7;
+    private static final int MOVE_MASK = 0xFFFF;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Move() {
+    }
+
+    /**
+     * @param from start square
+     * @param to   end square
+     * @return move without promotion or flags
+     */
+    public static int encode(int from, int to) {
+        return from | to << 6;
+    }
+
+    /**
+     * @param from      start square
+     * @param to        end square
+     * @param promotion piece to promote to, or null
+     * @param flags     flags such as {@link #CAPTURE}, or 0
+     * @return packed move
+     */
+    public static int encode(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        int move = from | to << 6 | flags;
+        if (promotion != null) {
+            move |= (promotion.ordinal() + 1) << PROMOTION_SHIFT;
+        }
+        return move;
+    }
+
+    /**
+     * @param move boxed move
+     * @return packed move, without flags
+     */
+    public static int of(ChessMove move) {
+        return encode(ChessBoard.square(move.getStartPosition()), ChessBoard.square(move.getEndPosition()),
+                move.getPromotionPiece(), 0);
+    }
+
+    /**
+     * @param move packed move
+     * @return boxed move for the existing API
+     */
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(ChessPosition.ofSquare(from(move)), ChessPosition.ofSquare(to(move)), promotion(move));
+    }
+
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & SQUARE_MASK;
+    }
+
+    /**
+     * @return piece to promote to, or null if the move isn't a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promotion = (move >>> PROMOTION_SHIFT) & PROMOTION_MASK;
+        return promotion == 0 ? null : TYPES[promotion - 1];
+    }
+
+    public static boolean isPromotion(int move) {
+        return ((move >>> PROMOTION_SHIFT) & PROMOTION_MASK) != 0;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    /**
+     * @return true if both are the same move, ignoring flags
+     */
+    public static boolean sameMove(int a, int b) {
+        return ((a ^ b) & MOVE_MASK) == 0;
+    }
+
+    /**
+     * @param move packed move
+     * @return move in long algebraic (UCI) form, e.g. "e2e4" or "e7e8q"
+     */
+    public static String toString(int move) {
+        return toChessMove(move).toUci();
+    }
+}
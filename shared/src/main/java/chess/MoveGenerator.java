@@ -0,0 +1,405 @@
+package chess;
+
+import chess.calculators.AttackTables;
+import chess.calculators.MagicBitboards;
+
+import java.util.Collection;
+
+/**
+ * Generates only legal moves, straight from the board's bitboards.
+ * <p>
+ * Before any moves are produced, the position is examined once: which enemy
+ * pieces give check, which of our pieces are pinned to the king, and which
+ * squares the enemy attacks. From those every move can be filtered with a
+ * couple of mask operations, so nothing has to be tried on the board and
+ * then checked for leaving the king in danger.
+ * <p>
+ * A side with no king on the board is never considered to be in check.
+ */
+public final class MoveGenerator {
+
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final long FILE_H = FILE_A << 7;
+    private static final long NOT_FILE_A = ~FILE_A;
+    private static final long NOT_FILE_H = ~FILE_H;
+    private static final long RANK_1 = 0xFFL;
+    private static final long RANK_8 = RANK_1 << 56;
+
+    private static final ChessPiece.PieceType[] PROMOTION_TYPES = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT
+    };
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Fills a reusable list with every legal move for the side to move,
+     * including castling and en passant, as packed moves instead of
+     * allocating a ChessMove for each
+     *
+     * @param game  game to generate moves for
+     * @param moves list to fill; cleared first
+     */
+    public static void legalMoves(ChessGame game, MoveList moves) {
+        moves.clear();
+        generate(game.getBoard(), game.getTeamTurn(), game.getCastlingRights(), game.getEnPassantSquare(),
+                ~0L, moves, false);
+    }
+
+    /**
+     * @param game   game to generate moves for
+     * @param square square of the piece to move; must not be empty. En passant is only
+     *               possible for a pawn of the side to move.
+     * @param moves  list to fill; cleared first
+     */
+    public static void legalMoves(ChessGame game, int square, MoveList moves) {
+        moves.clear();
+        ChessBoard board = game.getBoard();
+        ChessGame.TeamColor color = board.getPiece(square).getTeamColor();
+        int enPassant = color == game.getTeamTurn() ? game.getEnPassantSquare() : -1;
+        generate(board, color, game.getCastlingRights(), enPassant, 1L << square, moves, false);
+    }
+
+    /**
+     * @param game game to look at
+     * @return true if the side to move has at least one legal move
+     */
+    public static boolean hasLegalMove(ChessGame game) {
+        return generate(game.getBoard(), game.getTeamTurn(), game.getCastlingRights(), game.getEnPassantSquare(),
+                ~0L, null, true);
+    }
+
+    /**
+     * Moves from a bare board, which has no castling rights or en passant square
+     *
+     * @param board board to generate moves on
+     * @param color team to generate moves for
+     * @return every legal move for the given team
+     */
+    public static Collection<ChessMove> legalMoves(ChessBoard board, ChessGame.TeamColor color) {
+        MoveList moves = new MoveList();
+        legalMoves(board, color, moves);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * Moves from a bare board, which has no castling rights or en passant square
+     *
+     * @param board board to generate moves on
+     * @param color team to generate moves for
+     * @param moves list to fill; cleared first
+     */
+    public static void legalMoves(ChessBoard board, ChessGame.TeamColor color, MoveList moves) {
+        moves.clear();
+        generate(board, color, CastlingRights.NONE, -1, ~0L, moves, false);
+    }
+
+    /**
+     * @param board  board to generate moves on
+     * @param square square of the piece to move; must not be empty
+     * @param moves  list to fill; cleared first
+     */
+    public static void legalMoves(ChessBoard board, int square, MoveList moves) {
+        moves.clear();
+        generate(board, board.getPiece(square).getTeamColor(), CastlingRights.NONE, -1, 1L << square, moves, false);
+    }
+
+    /**
+     * @param board    board to generate moves on
+     * @param position square of the piece to move; must not be empty
+     * @return every legal move for the piece on that square
+     */
+    public static Collection<ChessMove> legalMoves(ChessBoard board, ChessPosition position) {
+        MoveList moves = new MoveList();
+        legalMoves(board, ChessBoard.square(position), moves);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * @param board board to look at
+     * @param color team to look for a legal move for
+     * @return true if the given team has at least one legal move
+     */
+    public static boolean hasLegalMove(ChessBoard board, ChessGame.TeamColor color) {
+        return generate(board, color, CastlingRights.NONE, -1, ~0L, null, true);
+    }
+
+    /**
+     * @param board board to look at
+     * @param color team whose king may be in check
+     * @return bitboard of the enemy pieces giving check to the given team's king
+     */
+    public static long checkers(ChessBoard board, ChessGame.TeamColor color) {
+        int kingSquare = board.kingSquare(color);
+        if (kingSquare < 0) {
+            return 0;
+        }
+        return AttackTables.attackersOf(board, kingSquare, opponent(color), board.getOccupancy());
+    }
+
+    /**
+     * Core of the generator.
+     *
+     * @param castlingRights rights of both sides, only ours are used
+     * @param enPassant      square a pawn can be taken en passant on, or -1
+     * @param fromMask       only pieces on these squares are moved
+     * @param moves          list the moves are added to, or null when only counting
+     * @param stopAtFirst    return as soon as one legal move is found
+     * @return true if any legal move was found
+     */
+    private static boolean generate(ChessBoard board, ChessGame.TeamColor us, int castlingRights, int enPassant,
+                                    long fromMask, MoveList moves, boolean stopAtFirst) {
+        ChessGame.TeamColor them = opponent(us);
+        long occupied = board.getOccupancy();
+        long ours = board.getOccupancy(us);
+        long theirs = board.getOccupancy(them);
+        int kingSquare = board.kingSquare(us);
+        long kingBit = kingSquare < 0 ? 0 : 1L << kingSquare;
+        boolean found = false;
+
+        long checkMask = ~0L;
+        long pinned = 0;
+
+        if (kingSquare >= 0) {
+            long checkers = AttackTables.attackersOf(board, kingSquare, them, occupied);
+
+            // king steps: anywhere the enemy doesn't attack, with our king lifted off the board
+            // so it can't hide behind itself from a slider
+            if ((fromMask & kingBit) != 0) {
+                long danger = attackedSquares(board, them, occupied & ~kingBit);
+                long targets = AttackTables.kingAttacks(kingSquare) & ~ours & ~danger;
+                if (checkers == 0) {
+                    targets |= castlingTargets(board, us, castlingRights, kingSquare, danger);
+                }
+                if (targets != 0) {
+                    found = true;
+                    if (stopAtFirst) {
+                        return true;
+                    }
+                    addKingMoves(kingSquare, targets, theirs, moves);
+                }
+            }
+
+            if (Long.bitCount(checkers) > 1) {
+                // double check: only the king can move
+                return found;
+            }
+            if (checkers != 0) {
+                // block the check or capture the checker
+                int checker = Long.numberOfTrailingZeros(checkers);
+                checkMask = checkers | MagicBitboards.between(kingSquare, checker);
+            }
+
+            pinned = pinnedPieces(board, us, kingSquare);
+        }
+
+        long movable = ours & ~kingBit & fromMask;
+        while (movable != 0) {
+            int from = Long.numberOfTrailingZeros(movable);
+            movable &= movable - 1;
+
+            ChessPiece.PieceType type = board.getPiece(from).getPieceType();
+            long allowed = checkMask;
+            if ((pinned & (1L << from)) != 0) {
+                // a pinned piece may only move along the line through it and its king
+                allowed &= MagicBitboards.line(kingSquare, from);
+            }
+
+            long targets = switch (type) {
+                case PAWN -> pawnTargets(us, from, occupied, theirs);
+                case KNIGHT -> AttackTables.knightAttacks(from) & ~ours;
+                case BISHOP -> MagicBitboards.bishopAttacks(from, occupied) & ~ours;
+                case ROOK -> MagicBitboards.rookAttacks(from, occupied) & ~ours;
+                case QUEEN -> MagicBitboards.queenAttacks(from, occupied) & ~ours;
+                case KING -> 0;
+            };
+            targets &= allowed;
+            if (targets == 0) {
+                continue;
+            }
+            found = true;
+            if (stopAtFirst) {
+                return true;
+            }
+            if (type == ChessPiece.PieceType.PAWN && (targets & (RANK_1 | RANK_8)) != 0) {
+                addPromotions(from, targets, theirs, moves);
+            } else {
+                addMoves(from, targets, theirs, moves);
+            }
+        }
+
+        if (enPassant >= 0) {
+            long pawns = AttackTables.pawnAttacks(them, enPassant)
+                    & board.getBitboard(us, ChessPiece.PieceType.PAWN) & fromMask;
+            int capturedSquare = us == ChessGame.TeamColor.WHITE ? enPassant - 8 : enPassant + 8;
+            long capturedBit = 1L << capturedSquare;
+            while (pawns != 0) {
+                int from = Long.numberOfTrailingZeros(pawns);
+                pawns &= pawns - 1;
+
+                // two pawns leave the board at once, which the pin & check masks don't cover,
+                // so look at the king again with the position as it would be after the capture
+                long after = (occupied ^ (1L << from) ^ capturedBit) | (1L << enPassant);
+                if (kingSquare >= 0
+                        && (AttackTables.attackersOf(board, kingSquare, them, after) & ~capturedBit) != 0) {
+                    continue;
+                }
+                found = true;
+                if (stopAtFirst) {
+                    return true;
+                }
+                moves.add(Move.encode(from, enPassant) | Move.CAPTURE | Move.EN_PASSANT);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Squares our king can castle to: the right is still held, the squares
+     * between king and rook are empty, and the king doesn't pass through or
+     * land on an attacked square. The caller makes sure the king isn't in check.
+     */
+    private static long castlingTargets(ChessBoard board, ChessGame.TeamColor us, int castlingRights,
+                                        int kingSquare, long danger) {
+        boolean white = us == ChessGame.TeamColor.WHITE;
+        int home = white ? CastlingRights.WHITE_KING_HOME : CastlingRights.BLACK_KING_HOME;
+        int kingside = white ? CastlingRights.WHITE_KINGSIDE : CastlingRights.BLACK_KINGSIDE;
+        int queenside = white ? CastlingRights.WHITE_QUEENSIDE : CastlingRights.BLACK_QUEENSIDE;
+        if (kingSquare != home || (castlingRights & (kingside | queenside)) == 0) {
+            return 0;
+        }
+
+        long occupied = board.getOccupancy();
+        long rooks = board.getBitboard(us, ChessPiece.PieceType.ROOK);
+        long targets = 0;
+        if ((castlingRights & kingside) != 0 && (rooks & (1L << (home + 3))) != 0
+                && (occupied & (3L << (home + 1))) == 0 && (danger & (3L << (home + 1))) == 0) {
+            targets |= 1L << (home + 2);
+        }
+        if ((castlingRights & queenside) != 0 && (rooks & (1L << (home - 4))) != 0
+                && (occupied & (7L << (home - 3))) == 0 && (danger & (3L << (home - 2))) == 0) {
+            targets |= 1L << (home - 2);
+        }
+        return targets;
+    }
+
+    /**
+     * Pieces of the given team that are the only thing standing between
+     * their king and an enemy rook, bishop or queen.
+     */
+    private static long pinnedPieces(ChessBoard board, ChessGame.TeamColor us, int kingSquare) {
+        ChessGame.TeamColor them = opponent(us);
+        long occupied = board.getOccupancy();
+        long theirs = board.getOccupancy(them);
+        long queens = board.getBitboard(them, ChessPiece.PieceType.QUEEN);
+
+        // enemy sliders that would hit the king if only enemy pieces were on the board
+        long snipers = (MagicBitboards.rookAttacks(kingSquare, theirs)
+                & (board.getBitboard(them, ChessPiece.PieceType.ROOK) | queens))
+                | (MagicBitboards.bishopAttacks(kingSquare, theirs)
+                & (board.getBitboard(them, ChessPiece.PieceType.BISHOP) | queens));
+
+        long pinned = 0;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+
+            long blockers = MagicBitboards.between(kingSquare, sniper) & occupied;
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & board.getOccupancy(us);
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * @return every square attacked by the given team, with sliders seeing through to the given occupancy
+     */
+    private static long attackedSquares(ChessBoard board, ChessGame.TeamColor attacker, long occupied) {
+        long attacks = pawnAttacks(attacker, board.getBitboard(attacker, ChessPiece.PieceType.PAWN));
+
+        long king = board.getBitboard(attacker, ChessPiece.PieceType.KING);
+        if (king != 0) {
+            attacks |= AttackTables.kingAttacks(Long.numberOfTrailingZeros(king));
+        }
+
+        long knights = board.getBitboard(attacker, ChessPiece.PieceType.KNIGHT);
+        while (knights != 0) {
+            attacks |= AttackTables.knightAttacks(Long.numberOfTrailingZeros(knights));
+            knights &= knights - 1;
+        }
+
+        long queens = board.getBitboard(attacker, ChessPiece.PieceType.QUEEN);
+        long diagonal = board.getBitboard(attacker, ChessPiece.PieceType.BISHOP) | queens;
+        while (diagonal != 0) {
+            attacks |= MagicBitboards.bishopAttacks(Long.numberOfTrailingZeros(diagonal), occupied);
+            diagonal &= diagonal - 1;
+        }
+        long straight = board.getBitboard(attacker, ChessPiece.PieceType.ROOK) | queens;
+        while (straight != 0) {
+            attacks |= MagicBitboards.rookAttacks(Long.numberOfTrailingZeros(straight), occupied);
+            straight &= straight - 1;
+        }
+        return attacks;
+    }
+
+    private static long pawnTargets(ChessGame.TeamColor us, int from, long occupied, long theirs) {
+        long pawn = 1L << from;
+        long empty = ~occupied;
+        long targets = AttackTables.pawnAttacks(us, from) & theirs;
+        if (us == ChessGame.TeamColor.WHITE) {
+            long single = (pawn << 8) & empty;
+            targets |= single | ((single << 8) & empty & (RANK_1 << 24));
+        } else {
+            long single = (pawn >>> 8) & empty;
+            targets |= single | ((single >>> 8) & empty & (RANK_1 << 32));
+        }
+        return targets;
+    }
+
+    /**
+     * @return squares attacked by pawns of the given team on the given squares
+     */
+    private static long pawnAttacks(ChessGame.TeamColor color, long pawns) {
+        if (color == ChessGame.TeamColor.WHITE) {
+            return ((pawns & NOT_FILE_A) << 7) | ((pawns & NOT_FILE_H) << 9);
+        }
+        return ((pawns & NOT_FILE_A) >>> 9) | ((pawns & NOT_FILE_H) >>> 7);
+    }
+
+    private static void addMoves(int from, long targets, long theirs, MoveList moves) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves.add(Move.encode(from, to) | captureFlag(to, theirs));
+        }
+    }
+
+    private static void addKingMoves(int from, long targets, long theirs, MoveList moves) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            int castle = Math.abs(to - from) == 2 ? Move.CASTLE : 0;
+            moves.add(Move.encode(from, to) | captureFlag(to, theirs) | castle);
+        }
+    }
+
+    private static void addPromotions(int from, long targets, long theirs, MoveList moves) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            for (ChessPiece.PieceType type : PROMOTION_TYPES) {
+                moves.add(Move.encode(from, to, type, captureFlag(to, theirs)));
+            }
+        }
+    }
+
+    private static int captureFlag(int to, long theirs) {
+        return (theirs & (1L << to)) != 0 ? Move.CAPTURE : 0;
+    }
+
+    private static ChessGame.TeamColor opponent(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+}
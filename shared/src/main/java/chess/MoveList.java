@@ -0,0 +1,99 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable list of packed {@link Move}s backed by an int array.
+ * <p>
+ * Meant to be allocated once and reused: {@link #clear()} keeps the array,
+ * so filling the same list at every node of a search doesn't allocate.
+ */
+public class MoveList {
+    // no legal chess position has more than 218 moves
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[Math.max(capacity, 1)];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return moves[index];
+    }
+
+    /**
+     * Replaces a move in place, e.g. when sorting
+     */
+    public void set(int index, int move) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Drops every move from the given index on, e.g. after filtering in place
+     *
+     * @param newSize number of moves to keep
+     */
+    public void truncate(int newSize) {
+        if (newSize < 0 || newSize > size) {
+            throw new IndexOutOfBoundsException(newSize);
+        }
+        size = newSize;
+    }
+
+    /**
+     * @param move packed move to look for
+     * @return true if the list holds the same move, ignoring flags
+     */
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (Move.sameMove(moves[i], move)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the moves boxed as ChessMoves, in list order
+     */
+    public List<ChessMove> toChessMoves() {
+        List<ChessMove> boxed = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            boxed.add(Move.toChessMove(moves[i]));
+        }
+        return boxed;
+    }
+}
@@ -0,0 +1,26 @@
+package chess;
+
+/**
+ * Everything needed to take back a move made with
+ * {@link ChessGame#makeMove(ChessMove, MoveUndo)}.
+ * <p>
+ * Records are filled in by makeMove and read back by unmakeMove, so one
+ * instance can be reused for every move at a given depth instead of
+ * allocating a new one each time.
+ */
+public class MoveUndo {
+    int from;
+    int to;
+    int movedIndex;
+    int placedIndex;
+    int capturedIndex;
+    // differs from "to" for en passant
+    int capturedSquare;
+    // -1 unless the move was castling
+    int rookFrom;
+    int rookTo;
+    ChessGame.TeamColor previousTurn;
+    int previousCastlingRights;
+    int previousEnPassantSquare;
+    int previousHalfmoveClock;
+}
@@ -0,0 +1,106 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Gson format of boards and games, attached to both classes with
+ * {@code @JsonAdapter} so every Gson instance uses it.
+ * <p>
+ * Games are written field by field as before. Reading also accepts games
+ * stored before the board moved to bitboards, whose board is a
+ * {@code squares} array of pieces, and games stored before castling and
+ * the draw rules were tracked. Without this Gson would skip the unknown
+ * {@code squares} field and load an empty board.
+ * <p>
+ * The position keys used to spot repetitions are left out of the stored
+ * form and rebuilt from the move log as a game is read.
+ */
+class StoredFormat implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+        TypeAdapter<JsonElement> elements = gson.getAdapter(JsonElement.class);
+        if (type.getRawType() == ChessBoard.class) {
+            return (TypeAdapter<T>) new Adapter<>((TypeAdapter<ChessBoard>) delegate, elements) {
+                @Override
+                ChessBoard fromTree(JsonObject json) {
+                    return json.has("squares") ? legacyBoard(json.getAsJsonArray("squares")) : delegate.fromJsonTree(json);
+                }
+            };
+        }
+        if (type.getRawType() == ChessGame.class) {
+            return (TypeAdapter<T>) new Adapter<>((TypeAdapter<ChessGame>) delegate, elements) {
+                @Override
+                ChessGame fromTree(JsonObject json) {
+                    ChessGame game = delegate.fromJsonTree(json);
+                    if (!json.has("castlingRights")) {
+                        game.upgradeStoredGame();
+                    } else {
+                        game.rebuildHistory();
+                    }
+                    return game;
+                }
+            };
+        }
+        return null;
+    }
+
+    /**
+     * @param squares rows 1-8, each holding columns 1-8 as a piece or null
+     */
+    private static ChessBoard legacyBoard(JsonArray squares) {
+        ChessBoard board = new ChessBoard();
+        for (int row = 0; row < squares.size(); row++) {
+            JsonArray columns = squares.get(row).getAsJsonArray();
+            for (int col = 0; col < columns.size(); col++) {
+                if (columns.get(col).isJsonNull()) {
+                    continue;
+                }
+                JsonObject piece = columns.get(col).getAsJsonObject();
+                board.addPiece(ChessPosition.of(row + 1, col + 1), ChessPiece.of(
+                        ChessGame.TeamColor.valueOf(piece.get("pieceColor").getAsString()),
+                        ChessPiece.PieceType.valueOf(piece.get("type").getAsString())));
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Writes with the reflective adapter and reads through a JSON tree, so the
+     * stored form can be looked at before it is turned into an object
+     */
+    private abstract static class Adapter<T> extends TypeAdapter<T> {
+        final TypeAdapter<T> delegate;
+        private final TypeAdapter<JsonElement> elements;
+
+        Adapter(TypeAdapter<T> delegate, TypeAdapter<JsonElement> elements) {
+            this.delegate = delegate;
+            this.elements = elements;
+        }
+
+        abstract T fromTree(JsonObject json);
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            delegate.write(out, value);
+        }
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            JsonElement json = elements.read(in);
+            return json.isJsonObject() ? fromTree(json.getAsJsonObject()) : delegate.fromJsonTree(json);
+        }
+    }
+}
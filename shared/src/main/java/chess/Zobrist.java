@@ -0,0 +1,75 @@
+package chess;
+
+/**
+ * Random numbers for Zobrist hashing of positions.
+ * <p>
+ * A position's key is the XOR of one number for every piece on its square,
+ * plus numbers for the side to move, the castling rights and the en passant
+ * file. Since XOR undoes itself, moving a piece only takes a couple of XORs
+ * to update the key instead of rehashing the whole board.
+ * <p>
+ * The numbers come from a fixed seed so keys stay the same across runs and
+ * machines; anything stored by key (caches, opening books) depends on that.
+ */
+public final class Zobrist {
+
+    private static final long[][] PIECE_SQUARE = new long[12][64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        long[] state = {0x43484553534B4559L};
+        for (long[] squares : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                squares[square] = next(state);
+            }
+        }
+        for (int i = 0; i < CASTLING.length; i++) {
+            CASTLING[i] = next(state);
+        }
+        for (int i = 0; i < EN_PASSANT_FILE.length; i++) {
+            EN_PASSANT_FILE[i] = next(state);
+        }
+        BLACK_TO_MOVE = next(state);
+        // no castling rights hashes to nothing, so boards without castling state agree with the piece-only key
+        CASTLING[0] = 0;
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param bitboardIndex color & type of the piece, as indexed by ChessBoard
+     * @param square        square index, 0 (a1) through 63 (h8)
+     */
+    static long piece(int bitboardIndex, int square) {
+        return PIECE_SQUARE[bitboardIndex][square];
+    }
+
+    /**
+     * @param rights castling rights as a 4-bit mask
+     */
+    static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * @param file 0-indexed file of the square a pawn can be captured en passant on
+     */
+    static long enPassantFile(int file) {
+        return EN_PASSANT_FILE[file];
+    }
+
+    static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+
+    // SplitMix64
+    private static long next(long[] state) {
+        long z = (state[0] += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
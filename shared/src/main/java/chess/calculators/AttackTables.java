@@ -0,0 +1,97 @@
+package chess.calculators;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * Precomputed attack masks for the pieces that don't slide: knights, kings
+ * and pawns. Each table has one bitboard per square, built once at class
+ * load, so an attack set is a single array read with no bounds checks.
+ * <p>
+ * Squares are numbered like {@link chess.ChessBoard}: 0 is a1, 63 is h8.
+ */
+public final class AttackTables {
+
+    private static final int[][] KNIGHT_DIRECTIONS = {{-2, -1}, {-1, -2}, {1, -2}, {2, -1}, {1, 2}, {2, 1}, {-1, 2}, {-2, 1}};
+    private static final int[][] KING_DIRECTIONS = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+    private static final int[][] WHITE_PAWN_DIRECTIONS = {{1, -1}, {1, 1}};
+    private static final int[][] BLACK_PAWN_DIRECTIONS = {{-1, -1}, {-1, 1}};
+
+    private static final long[] KNIGHT = buildTable(KNIGHT_DIRECTIONS);
+    private static final long[] KING = buildTable(KING_DIRECTIONS);
+    // indexed by color ordinal, then square
+    private static final long[][] PAWN = {buildTable(WHITE_PAWN_DIRECTIONS), buildTable(BLACK_PAWN_DIRECTIONS)};
+
+    private AttackTables() {
+    }
+
+    public static long knightAttacks(int square) {
+        return KNIGHT[square];
+    }
+
+    public static long kingAttacks(int square) {
+        return KING[square];
+    }
+
+    /**
+     * @param color team of the pawn
+     * @param square square the pawn stands on
+     * @return the (at most two) squares diagonally in front of the pawn
+     */
+    public static long pawnAttacks(ChessGame.TeamColor color, int square) {
+        return PAWN[color.ordinal()][square];
+    }
+
+    /**
+     * Finds every piece of a team attacking a square, by looking outwards
+     * from the square with each piece's attack pattern instead of generating
+     * the team's moves
+     *
+     * @param board    board to look at
+     * @param square   square being attacked
+     * @param attacker team doing the attacking
+     * @param occupied occupancy the sliders see; usually the board's, but a
+     *                 piece can be left out to see through it
+     * @return bitboard of the attacking pieces
+     */
+    public static long attackersOf(ChessBoard board, int square, ChessGame.TeamColor attacker, long occupied) {
+        ChessGame.TeamColor defender = attacker == ChessGame.TeamColor.WHITE
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long queens = board.getBitboard(attacker, ChessPiece.PieceType.QUEEN);
+        return (KNIGHT[square] & board.getBitboard(attacker, ChessPiece.PieceType.KNIGHT))
+                // a pawn attacks this square from wherever a defending pawn here would attack
+                | (PAWN[defender.ordinal()][square] & board.getBitboard(attacker, ChessPiece.PieceType.PAWN))
+                | (KING[square] & board.getBitboard(attacker, ChessPiece.PieceType.KING))
+                | (MagicBitboards.rookAttacks(square, occupied)
+                & (board.getBitboard(attacker, ChessPiece.PieceType.ROOK) | queens))
+                | (MagicBitboards.bishopAttacks(square, occupied)
+                & (board.getBitboard(attacker, ChessPiece.PieceType.BISHOP) | queens));
+    }
+
+    /**
+     * @param board    board to look at
+     * @param square   square to test
+     * @param attacker team that may be attacking it
+     * @return true if any piece of that team attacks the square
+     */
+    public static boolean isSquareAttacked(ChessBoard board, int square, ChessGame.TeamColor attacker) {
+        return attackersOf(board, square, attacker, board.getOccupancy()) != 0;
+    }
+
+    private static long[] buildTable(int[][] directions) {
+        long[] table = new long[64];
+        for (int square = 0; square < 64; square++) {
+            int row = square / 8;
+            int col = square % 8;
+            for (int[] dir : directions) {
+                int newRow = row + dir[0];
+                int newCol = col + dir[1];
+                if (newRow >= 0 && newRow < 8 && newCol >= 0 && newCol < 8) {
+                    table[square] |= 1L << (newRow * 8 + newCol);
+                }
+            }
+        }
+        return table;
+    }
+}
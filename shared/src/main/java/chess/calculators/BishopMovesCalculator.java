@@ -4,87 +4,15 @@ import chess.ChessBoard;
 import chess.ChessMove;
 import chess.ChessPosition;
 
-import java.util.ArrayList;
 import java.util.Collection;
 
 public class BishopMovesCalculator implements PieceMovesCalculator{
     @Override
-    public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        ArrayList<ChessMove> moves = new ArrayList<>();
+    public void pieceMoves(ChessBoard board, ChessPosition myPosition, Collection<ChessMove> moves) {
+        // every square along the 4 diagonals up to and including the first blocker
+        int square = ChessBoard.square(myPosition);
+        long targets = MagicBitboards.bishopAttacks(square, board.getOccupancy());
 
-        /* check moves top-right: */
-        int row = myPosition.getRow() + 1;
-        int col = myPosition.getColumn() + 1;
-        while(row <= 8 && col <= 8) {
-            ChessPosition newPosition = new ChessPosition(row, col);
-            // piece is in the way:
-            if(board.getPiece(newPosition) != null) {
-                if (board.getPiece(newPosition).getTeamColor() != board.getPiece(myPosition).getTeamColor()) {
-                    moves.add(new ChessMove(myPosition, newPosition, null));
-                }
-                break;
-            } else {
-                moves.add(new ChessMove(myPosition, newPosition, null));
-            }
-            row++;
-            col++;
-        }
-
-        /* check moves top-left: */
-        row = myPosition.getRow() + 1;
-        col = myPosition.getColumn() - 1;
-        while(row <= 8 && col > 0) {
-            ChessPosition newPosition = new ChessPosition(row, col);
-            // piece is in the way:
-            if(board.getPiece(newPosition) != null) {
-                if (board.getPiece(newPosition).getTeamColor() != board.getPiece(myPosition).getTeamColor()) {
-                    moves.add(new ChessMove(myPosition, newPosition, null));
-                }
-                break;
-            } else {
-                moves.add(new ChessMove(myPosition, newPosition, null));
-            }
-            row++;
-            col--;
-        }
-
-        /* check moves bottom-left: */
-        row = myPosition.getRow() - 1;
-        col = myPosition.getColumn() - 1;
-        while(row > 0 && col > 0) {
-            ChessPosition newPosition = new ChessPosition(row, col);
-            // piece is in the way:
-            if(board.getPiece(newPosition) != null) {
-                if (board.getPiece(newPosition).getTeamColor() != board.getPiece(myPosition).getTeamColor()) {
-                    moves.add(new ChessMove(myPosition, newPosition, null));
-                }
-                break;
-            } else {
-                moves.add(new ChessMove(myPosition, newPosition, null));
-            }
-            row--;
-            col--;
-        }
-
-        /* check moves bottom-right: */
-        row = myPosition.getRow() - 1;
-        col = myPosition.getColumn() + 1;
-        while(row > 0 && col <= 8) {
-            ChessPosition newPosition = new ChessPosition(row, col);
-            // piece is in the way:
-            if(board.getPiece(newPosition) != null) {
-                if (board.getPiece(newPosition).getTeamColor() != board.getPiece(myPosition).getTeamColor()) {
-                    moves.add(new ChessMove(myPosition, newPosition, null));
-                }
-                break;
-            } else {
-                moves.add(new ChessMove(myPosition, newPosition, null));
-            }
-            row--;
-            col++;
-        }
-
-
-        return moves;
+        CalculatorHelper.addMoves(board, myPosition, targets, moves);
     }
 }
@@ -5,37 +5,27 @@ import chess.ChessGame;
 import chess.ChessMove;
 import chess.ChessPosition;
 
-import java.util.ArrayList;
 import java.util.Collection;
 
 public class CalculatorHelper{
 
-    public static Collection<ChessMove> checkAround(int[][] directions, ChessPosition myPosition, ChessBoard board) {
-        ArrayList<ChessMove> moves = new ArrayList<>();
+    /**
+     * Adds a move to every square in an attack bitboard that isn't held by
+     * the moving piece's own team
+     *
+     * @param board board the piece is on
+     * @param myPosition position of the moving piece
+     * @param targets bitboard of squares the piece attacks
+     * @param moves collection to add the moves to
+     */
+    public static void addMoves(ChessBoard board, ChessPosition myPosition, long targets, Collection<ChessMove> moves) {
         ChessGame.TeamColor myColor = board.getPiece(myPosition).getTeamColor();
+        targets &= ~board.getOccupancy(myColor);
 
-        for(int[] dir: directions) {
-            int newRow = myPosition.getRow() + dir[0];
-            int newCol = myPosition.getColumn() + dir[1];
-
-            // check that new move is on the board
-            if((newRow >= 1 && newCol >= 1) && (newRow <= 8 && newCol <= 8)) {
-                ChessPosition newPosition = new ChessPosition(newRow, newCol);
-
-                //if place isn't occupied
-                if(board.getPiece(newPosition) == null) {
-                    moves.add(new ChessMove(myPosition, newPosition, null));
-                } else {
-                    // if occupied by opponent
-                    if (myColor != board.getPiece(newPosition).getTeamColor()) {
-                        moves.add(new ChessMove(myPosition, newPosition, null));
-                    }
-                }
-            }
+        while(targets != 0) {
+            int square = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves.add(new ChessMove(myPosition, ChessPosition.ofSquare(square), null));
         }
-        return moves;
-
     }
-
-
 }
@@ -8,9 +8,9 @@ import java.util.Collection;
 
 public class KingMovesCalculator implements PieceMovesCalculator{
     @Override
-    public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        int[][] directions = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+    public void pieceMoves(ChessBoard board, ChessPosition myPosition, Collection<ChessMove> moves) {
+        long targets = AttackTables.kingAttacks(ChessBoard.square(myPosition));
 
-        return CalculatorHelper.checkAround(directions, myPosition, board);
+        CalculatorHelper.addMoves(board, myPosition, targets, moves);
     }
 }
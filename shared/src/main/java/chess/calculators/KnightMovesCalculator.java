@@ -8,9 +8,9 @@ import java.util.Collection;
 
 public class KnightMovesCalculator implements PieceMovesCalculator{
     @Override
-    public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        int[][] directions = {{-2, -1}, {-1, -2}, {1, -2}, {2, -1}, {1, 2}, {2, 1}, {-1, 2}, {-2, 1}};
+    public void pieceMoves(ChessBoard board, ChessPosition myPosition, Collection<ChessMove> moves) {
+        long targets = AttackTables.knightAttacks(ChessBoard.square(myPosition));
 
-        return CalculatorHelper.checkAround(directions, myPosition, board);
+        CalculatorHelper.addMoves(board, myPosition, targets, moves);
     }
 }
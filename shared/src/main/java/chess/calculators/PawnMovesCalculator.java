@@ -2,13 +2,11 @@ package chess.calculators;
 
 import chess.*;
 
-import java.util.ArrayList;
 import java.util.Collection;
 
 public class PawnMovesCalculator implements PieceMovesCalculator{
     @Override
-    public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> moves = new ArrayList<>();
+    public void pieceMoves(ChessBoard board, ChessPosition myPosition, Collection<ChessMove> moves) {
         ChessGame.TeamColor myColor = board.getPiece(myPosition).getTeamColor();
         int forwardDirection;
         int startRow;
@@ -30,7 +28,7 @@ public class PawnMovesCalculator implements PieceMovesCalculator{
         int oneStepCol = myPosition.getColumn();
 
         if (oneStepRow >= 1 && oneStepRow <= 8) {
-            ChessPosition oneStepPos = new ChessPosition(oneStepRow, oneStepCol);
+            ChessPosition oneStepPos = ChessPosition.of(oneStepRow, oneStepCol);
             if (board.getPiece(oneStepPos) == null) {
                 // Square is empty, so it's a valid move.
                 // Check for promotion
@@ -49,8 +47,8 @@ public class PawnMovesCalculator implements PieceMovesCalculator{
         // Two-Step moves
         if (myPosition.getRow() == startRow) {
             int twoStepsRow = myPosition.getRow() + 2 * forwardDirection;
-            ChessPosition oneStepPos = new ChessPosition(oneStepRow, oneStepCol); // From single-step
-            ChessPosition twoStepsPos = new ChessPosition(twoStepsRow, oneStepCol);
+            ChessPosition oneStepPos = ChessPosition.of(oneStepRow, oneStepCol); // From single-step
+            ChessPosition twoStepsPos = ChessPosition.of(twoStepsRow, oneStepCol);
 
             // Check that both squares are empty
             if (board.getPiece(oneStepPos) == null && board.getPiece(twoStepsPos) == null) {
@@ -62,7 +60,7 @@ public class PawnMovesCalculator implements PieceMovesCalculator{
         int[] captureCols = {myPosition.getColumn() - 1, myPosition.getColumn() + 1 };
         for (int captureCol : captureCols) {
             if (captureCol >= 1 && captureCol <= 8) {
-                ChessPosition capturePos = new ChessPosition(oneStepRow, captureCol);
+                ChessPosition capturePos = ChessPosition.of(oneStepRow, captureCol);
                 ChessPiece pieceToCapture = board.getPiece(capturePos);
 
                 // Check for an enemy piece on the capture square
@@ -79,7 +77,5 @@ public class PawnMovesCalculator implements PieceMovesCalculator{
                 }
             }
         }
-
-        return moves;
     }
 }
@@ -1,8 +1,29 @@
 package chess.calculators;
 
 import chess.*;
+
+import java.util.ArrayList;
 import java.util.Collection;
 
+/**
+ * Calculates the moves of one type of piece. Implementations hold no state,
+ * so a single instance of each is shared by every caller.
+ */
 public interface PieceMovesCalculator {
-    Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition);
-}
\ No newline at end of file
+
+    /**
+     * Adds the piece's moves to a collection supplied by the caller, so a
+     * buffer can be reused instead of allocating a list per call
+     *
+     * @param board board the piece is on
+     * @param myPosition position of the piece
+     * @param moves collection to add the moves to
+     */
+    void pieceMoves(ChessBoard board, ChessPosition myPosition, Collection<ChessMove> moves);
+
+    default Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
+        Collection<ChessMove> moves = new ArrayList<>();
+        pieceMoves(board, myPosition, moves);
+        return moves;
+    }
+}
@@ -4,25 +4,20 @@ import chess.ChessBoard;
 import chess.ChessMove;
 import chess.ChessPosition;
 
-import java.util.ArrayList;
 import java.util.Collection;
 
 
 /**
  * Queens perform the same moves as a bishop and a rook
- * Returns the lists of moves from both a bishop and a rook
- * Combined into one whole list.
+ * Looks up the rook and bishop attack sets together
+ * and combines them into one whole list.
  */
 public class QueenMovesCalculator implements PieceMovesCalculator{
     @Override
-    public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
+    public void pieceMoves(ChessBoard board, ChessPosition myPosition, Collection<ChessMove> moves) {
+        int square = ChessBoard.square(myPosition);
+        long targets = MagicBitboards.queenAttacks(square, board.getOccupancy());
 
-        PieceMovesCalculator rookCalculator = new RookMovesCalculator();
-        ArrayList<ChessMove> moves = new ArrayList<>(rookCalculator.pieceMoves(board, myPosition));
-
-        PieceMovesCalculator bishopCalculator = new BishopMovesCalculator();
-        moves.addAll(bishopCalculator.pieceMoves(board, myPosition));
-
-        return moves;
+        CalculatorHelper.addMoves(board, myPosition, targets, moves);
     }
 }
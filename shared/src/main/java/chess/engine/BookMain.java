@@ -0,0 +1,105 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Fen;
+import chess.InvalidMoveException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line tool for opening books.
+ * <pre>
+ * BookMain build &lt;games&gt; &lt;book&gt;   builds a book from a file with one game per line, as UCI moves
+ * BookMain probe &lt;book&gt; [fen]     lists the book's moves for the position
+ * </pre>
+ * Options for build: {@code --plies=N} (moves of each game to add, default 20) and
+ * {@code --min-weight=N} (leave out moves played fewer times, default 1).
+ */
+public class BookMain {
+
+    public static void main(String[] args) throws IOException {
+        List<String> positional = new ArrayList<>();
+        int plies = 20;
+        int minWeight = 1;
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--plies=")) {
+                    plies = Integer.parseInt(arg.substring("--plies=".length()));
+                } else if (arg.startsWith("--min-weight=")) {
+                    minWeight = Integer.parseInt(arg.substring("--min-weight=".length()));
+                } else if (arg.equals("--help")) {
+                    usage();
+                    return;
+                } else {
+                    positional.add(arg);
+                }
+            }
+
+            switch (positional.get(0)) {
+                case "build" -> build(Path.of(positional.get(1)), Path.of(positional.get(2)), plies, minWeight);
+                case "probe" -> probe(Path.of(positional.get(1)), positional.size() > 2
+                        ? String.join(" ", positional.subList(2, positional.size())) : Fen.START_POSITION);
+                default -> usage();
+            }
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            usage();
+        }
+    }
+
+    private static void build(Path games, Path book, int plies, int minWeight) throws IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        int count = 0;
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(games)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    List<ChessMove> moves = new ArrayList<>();
+                    for (String move : line.split("\\s+")) {
+                        moves.add(ChessMove.fromUci(move));
+                    }
+                    builder.addGame(new ChessGame(), moves, plies);
+                    count++;
+                } catch (InvalidMoveException | IllegalArgumentException e) {
+                    skipped++;
+                }
+            }
+        }
+        long entries = builder.write(book, minWeight);
+        System.out.printf("%d games (%d skipped), %d positions, %d entries written to %s%n",
+                count, skipped, builder.getPositions(), entries, book);
+    }
+
+    private static void probe(Path book, String fen) throws IOException {
+        long start = System.nanoTime();
+        OpeningBook openingBook = OpeningBook.open(book);
+        long opened = System.nanoTime();
+        List<OpeningBook.BookMove> moves = openingBook.getMoves(Fen.parse(fen));
+        long probed = System.nanoTime();
+
+        System.out.println(fen);
+        for (OpeningBook.BookMove move : moves) {
+            System.out.println(move);
+        }
+        System.out.printf("%d entries; opened in %d us, probed in %d us%n", openingBook.size(),
+                (opened - start) / 1000, (probed - opened) / 1000);
+    }
+
+    private static void usage() {
+        System.out.println("""
+                Usage:
+                  BookMain build <games> <book>  build a book from one game per line, as UCI moves
+                  BookMain probe <book> [fen]    list the book's moves for the position
+                Options for build: --plies=N (default 20) --min-weight=N (default 1)""");
+    }
+}
@@ -0,0 +1,131 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.tablebase.Tablebases;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line entry point for the search.
+ * <pre>
+ * EngineMain [fen]                   searches the position, printing every completed iteration
+ * EngineMain scaling &lt;depth&gt; [fen]   time to depth with 1, 2, 4 ... threads, with speedups
+ * </pre>
+ * The position defaults to the standard starting position. Options:
+ * {@code --time=MS} (time budget, default 1000),
+ * {@code --depth=N} (deepest iteration, default {@value Search#MAX_PLY} - 1),
+ * {@code --threads=N} (search threads, default 1; the most tried by scaling, default every core),
+ * {@code --hash=MB} (transposition table size, default 16) and
+ * {@code --tb=DIR} (directory of endgame tables to probe, default none).
+ */
+public class EngineMain {
+
+    public static void main(String[] args) {
+        List<String> positional = new ArrayList<>();
+        long timeMillis = 1000;
+        int depth = Search.MAX_PLY - 1;
+        int threads = 0;
+        int hashMb = 16;
+        Tablebases tablebases = Tablebases.empty();
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--time=")) {
+                    timeMillis = Long.parseLong(arg.substring("--time=".length()));
+                } else if (arg.startsWith("--depth=")) {
+                    depth = Integer.parseInt(arg.substring("--depth=".length()));
+                } else if (arg.startsWith("--threads=")) {
+                    threads = Integer.parseInt(arg.substring("--threads=".length()));
+                } else if (arg.startsWith("--hash=")) {
+                    hashMb = Integer.parseInt(arg.substring("--hash=".length()));
+                } else if (arg.startsWith("--tb=")) {
+                    tablebases = Tablebases.open(Path.of(arg.substring("--tb=".length())));
+                } else if (arg.equals("--help")) {
+                    usage();
+                    return;
+                } else {
+                    positional.add(arg);
+                }
+            }
+
+            if (!positional.isEmpty() && positional.get(0).equals("scaling")) {
+                int maxThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+                scaling(Integer.parseInt(positional.get(1)), fenArg(positional, 2), maxThreads, hashMb);
+            } else {
+                search(fenArg(positional, 0), depth, timeMillis, Math.max(threads, 1), hashMb, tablebases);
+            }
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            usage();
+        } catch (IOException e) {
+            System.err.println("Failed to open tablebases: " + e.getMessage());
+        }
+    }
+
+    private static void search(String fen, int depth, long timeMillis, int threads, int hashMb,
+                               Tablebases tablebases) {
+        ChessGame game = Fen.parse(fen);
+        System.out.println(fen);
+        try (LazySmpSearch search = new LazySmpSearch(threads, PieceSquareEvaluator::new, new TranspositionTable(hashMb))) {
+            search.setTablebases(tablebases);
+            SearchResult result = search.search(game, depth, timeMillis, System.out::println);
+            if (threads > 1) {
+                System.out.println("all threads: " + result);
+            }
+            System.out.printf("hash: %.1f%% full, %.1f%% hits%n",
+                    100 * search.getTable().getFillRate(), 100 * search.getTable().getHitRate());
+            System.out.println("bestmove " + (result.getBestMove() == null ? "(none)" : result.getBestMove().toUci()));
+        }
+    }
+
+    /**
+     * Searches the position to a fixed depth with a doubling number of threads up to the
+     * maximum, reporting each run's time to depth and speedup over the single-threaded one
+     */
+    private static void scaling(int depth, String fen, int maxThreads, int hashMb) {
+        ChessGame game = Fen.parse(fen);
+        System.out.printf("%s%ndepth %d, hash %d MB%n", fen, depth, hashMb);
+        System.out.printf("%7s %14s %10s %14s %8s %10s%n", "threads", "nodes", "ms", "nodes/sec", "speedup", "efficiency");
+
+        List<Integer> counts = new ArrayList<>();
+        for (int t = 1; t < maxThreads; t *= 2) {
+            counts.add(t);
+        }
+        counts.add(maxThreads);
+        long baseNanos = 0;
+        for (int threads : counts) {
+            // a fresh table per run, so later runs don't get a head start from earlier ones
+            try (LazySmpSearch search = new LazySmpSearch(threads, PieceSquareEvaluator::new,
+                    new TranspositionTable(hashMb))) {
+                long start = System.nanoTime();
+                SearchResult result = search.search(game, depth, Long.MAX_VALUE);
+                long nanos = System.nanoTime() - start;
+                if (threads == 1) {
+                    baseNanos = nanos;
+                }
+                double speedup = (double) baseNanos / nanos;
+                System.out.printf("%7d %14d %10d %14d %7.2fx %9.0f%%%n", threads, result.getNodes(),
+                        nanos / 1_000_000, result.getNodesPerSecond(), speedup, 100 * speedup / threads);
+            }
+        }
+    }
+
+    private static String fenArg(List<String> args, int from) {
+        if (args.size() <= from) {
+            return Fen.START_POSITION;
+        }
+        return String.join(" ", args.subList(from, args.size()));
+    }
+
+    private static void usage() {
+        System.out.println("""
+                Usage:
+                  EngineMain [fen]                  search the position and print every completed iteration
+                  EngineMain scaling <depth> [fen]  time to depth with 1, 2, 4 ... threads
+                Options: --time=MS (default 1000) --depth=N (default no limit)
+                         --threads=N (default 1, scaling: all cores) --hash=MB (default 16)
+                         --tb=DIR (endgame tables, default none)""");
+    }
+}
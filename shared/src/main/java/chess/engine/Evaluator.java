@@ -0,0 +1,15 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+/**
+ * Static evaluation of a position, used at the leaves of the search
+ */
+public interface Evaluator {
+
+    /**
+     * @param game position to evaluate
+     * @return score in centipawns from the point of view of the side to move
+     */
+    int evaluate(ChessGame game);
+}
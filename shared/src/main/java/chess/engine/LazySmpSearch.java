@@ -0,0 +1,151 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.tablebase.Tablebases;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Lazy SMP: several threads run the same iterative deepening search on
+ * the same root, sharing one {@link TranspositionTable} and one stop flag.
+ * <p>
+ * The threads don't divide the tree between them. They speed each other up
+ * through the table: a helper that gets to a position first leaves a result
+ * and a best move for the others. Every other helper starts at depth 2
+ * instead of 1, so the threads are usually working on different iterations
+ * and fill in different parts of the table. The calling thread runs the
+ * main search; when it finishes, the helpers are stopped and the deepest
+ * completed result of any thread is returned.
+ * <p>
+ * One instance runs one search at a time. Close it to stop its helper threads.
+ */
+public class LazySmpSearch implements AutoCloseable {
+    private final TranspositionTable table;
+    private final AtomicBoolean stopFlag = new AtomicBoolean();
+    private final Search main;
+    private final List<Search> helpers = new ArrayList<>();
+    private final ExecutorService pool;
+
+    /**
+     * @param threads   total number of search threads, counting the calling thread
+     * @param evaluator creates one evaluator per thread
+     * @param table     table shared by all the threads
+     */
+    public LazySmpSearch(int threads, Supplier<Evaluator> evaluator, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.table = table;
+        this.main = new Search(evaluator.get(), table, stopFlag);
+        for (int i = 1; i < threads; i++) {
+            helpers.add(new Search(evaluator.get(), table, stopFlag));
+        }
+        this.pool = helpers.isEmpty() ? null : Executors.newFixedThreadPool(helpers.size(), runnable -> {
+            Thread thread = new Thread(runnable, "lazy-smp-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Searches until the depth or time limit is reached, whichever comes first
+     *
+     * @param position   position to search; not modified
+     * @param maxDepth   deepest iteration to run, at least 1
+     * @param timeMillis time budget, as for {@link Search#search(ChessGame, int, long)}
+     * @param listener   called with every iteration the main thread completes, or null
+     * @return deepest result completed by any thread, with the nodes of all threads
+     */
+    public SearchResult search(ChessGame position, int maxDepth, long timeMillis, Consumer<SearchResult> listener) {
+        long start = System.nanoTime();
+        stopFlag.set(false);
+        table.newSearch();
+
+        long[] helperNodes = new long[helpers.size()];
+        List<Future<SearchResult>> futures = new ArrayList<>();
+        for (int i = 0; i < helpers.size(); i++) {
+            Search helper = helpers.get(i);
+            int id = i;
+            // the odd helpers start one iteration ahead, on the even ones' heels
+            int startDepth = 1 + (i + 1) % 2;
+            futures.add(pool.submit(() -> {
+                SearchResult result = helper.run(position, startDepth, maxDepth, timeMillis, null);
+                helperNodes[id] = helper.getNodes();
+                return result;
+            }));
+        }
+
+        SearchResult best = main.run(position, 1, maxDepth, timeMillis, listener);
+        stopFlag.set(true);
+
+        long nodes = main.getNodes();
+        for (int i = 0; i < futures.size(); i++) {
+            SearchResult result = await(futures.get(i));
+            nodes += helperNodes[i];
+            if (result != null && result.getDepth() > best.getDepth() && result.getBestMove() != null) {
+                best = result;
+            }
+        }
+        return new SearchResult(best.getPrincipalVariation(), best.getScore(), best.getDepth(), nodes,
+                System.nanoTime() - start);
+    }
+
+    /**
+     * @see #search(ChessGame, int, long, Consumer)
+     */
+    public SearchResult search(ChessGame position, int maxDepth, long timeMillis) {
+        return search(position, maxDepth, timeMillis, null);
+    }
+
+    /**
+     * @param tablebases endgame tables for every thread to look positions up in
+     */
+    public void setTablebases(Tablebases tablebases) {
+        main.setTablebases(tablebases);
+        for (Search helper : helpers) {
+            helper.setTablebases(tablebases);
+        }
+    }
+
+    /**
+     * Asks a running search to stop as soon as possible; safe to call from any thread
+     */
+    public void stop() {
+        stopFlag.set(true);
+    }
+
+    public int getThreads() {
+        return helpers.size() + 1;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    @Override
+    public void close() {
+        stopFlag.set(true);
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private static SearchResult await(Future<SearchResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("helper search failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * Counts material and nothing else
+ */
+public class MaterialEvaluator implements Evaluator {
+
+    // centipawns, indexed by PieceType ordinal: king, queen, bishop, knight, rook, pawn
+    static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+
+    @Override
+    public int evaluate(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        int score = 0;
+        for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+            int count = Long.bitCount(board.getBitboard(ChessGame.TeamColor.WHITE, type))
+                    - Long.bitCount(board.getBitboard(ChessGame.TeamColor.BLACK, type));
+            score += count * PIECE_VALUES[type.ordinal()];
+        }
+        return game.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+}
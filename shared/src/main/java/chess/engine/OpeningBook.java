@@ -0,0 +1,206 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.Move;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Opening book read straight from a memory-mapped file.
+ * <p>
+ * The file is a flat array of 16-byte entries sorted by key, laid out like
+ * a Polyglot book but keyed by our own {@link ChessGame#positionKey()}
+ * rather than Polyglot's hashing:
+ * <pre>
+ * bytes  0-7   position key
+ * bytes  8-9   move, as the low 16 bits of a {@link Move}
+ * bytes 10-11  weight, unsigned; how often the move should be picked
+ * bytes 12-15  unused, 0
+ * </pre>
+ * All numbers are big-endian. A position with several book moves has one
+ * entry per move, next to each other. {@link OpeningBookBuilder} writes the
+ * format.
+ * <p>
+ * Opening a book maps the file but reads nothing: the operating system pages
+ * in only the parts a lookup touches, so even a very large book costs no heap
+ * and no load time. A lookup is a binary search over the entries, about 25
+ * reads for a book of tens of millions of positions. Lookups only read, so
+ * any number of threads can share a book.
+ */
+public final class OpeningBook {
+    public static final int ENTRY_BYTES = 16;
+
+    // a single mapping is limited to 2 GB, so larger books are mapped in pieces
+    private static final int ENTRIES_PER_CHUNK = 1 << 26;
+    private static final OpeningBook EMPTY = new OpeningBook(new MappedByteBuffer[0], 0);
+
+    private final MappedByteBuffer[] chunks;
+    private final long entries;
+
+    /**
+     * A move the book knows for a position, with its weight
+     */
+    public static final class BookMove {
+        private final ChessMove move;
+        private final int weight;
+
+        BookMove(ChessMove move, int weight) {
+            this.move = move;
+            this.weight = weight;
+        }
+
+        public ChessMove getMove() {
+            return move;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        @Override
+        public String toString() {
+            return move.toUci() + " " + weight;
+        }
+    }
+
+    private OpeningBook(MappedByteBuffer[] chunks, long entries) {
+        this.chunks = chunks;
+        this.entries = entries;
+    }
+
+    /**
+     * Maps a book file. The mapping stays valid after the file is closed,
+     * until the book is garbage collected.
+     *
+     * @throws IOException if the file can't be read or isn't a whole number of entries
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % ENTRY_BYTES != 0) {
+                throw new IOException(path + " is not an opening book: size " + size
+                        + " is not a multiple of " + ENTRY_BYTES);
+            }
+            long entries = size / ENTRY_BYTES;
+            int chunkCount = (int) ((entries + ENTRIES_PER_CHUNK - 1) / ENTRIES_PER_CHUNK);
+            MappedByteBuffer[] chunks = new MappedByteBuffer[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                long first = (long) i * ENTRIES_PER_CHUNK;
+                long count = Math.min(ENTRIES_PER_CHUNK, entries - first);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, first * ENTRY_BYTES, count * ENTRY_BYTES);
+                chunks[i].order(ByteOrder.BIG_ENDIAN);
+            }
+            return new OpeningBook(chunks, entries);
+        }
+    }
+
+    /**
+     * @return a book without any moves, for when no book file is available
+     */
+    public static OpeningBook empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @return number of entries, one per position and move
+     */
+    public long size() {
+        return entries;
+    }
+
+    /**
+     * @param game position to look up; not modified
+     * @return the book's legal moves for the position, with weights; empty if it has none
+     */
+    public List<BookMove> getMoves(ChessGame game) {
+        long key = game.positionKey();
+        List<BookMove> moves = new ArrayList<>();
+        for (long i = firstEntry(key); i < entries && key(i) == key; i++) {
+            int weight = weight(i);
+            ChessMove move = Move.toChessMove(move(i));
+            // a stale book or a key collision could suggest anything, so only legal moves get through
+            if (weight > 0 && isLegal(game, move)) {
+                moves.add(new BookMove(move, weight));
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Picks one of the book's moves for the position, at random in proportion to the weights
+     *
+     * @return the move, or null if the book has none for the position
+     */
+    public ChessMove pick(ChessGame game, RandomGenerator random) {
+        List<BookMove> moves = getMoves(game);
+        int total = 0;
+        for (BookMove move : moves) {
+            total += move.getWeight();
+        }
+        if (total == 0) {
+            return null;
+        }
+        int choice = random.nextInt(total);
+        for (BookMove move : moves) {
+            choice -= move.getWeight();
+            if (choice < 0) {
+                return move.getMove();
+            }
+        }
+        throw new AssertionError("weights changed while picking");
+    }
+
+    /**
+     * @return index of the first entry with a key of at least the given one,
+     * comparing keys as unsigned like the sort order of the file
+     */
+    private long firstEntry(long key) {
+        long low = 0;
+        long high = entries;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(key(mid), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long key(long entry) {
+        return chunk(entry).getLong(offset(entry));
+    }
+
+    private int move(long entry) {
+        return chunk(entry).getShort(offset(entry) + 8) & 0xFFFF;
+    }
+
+    private int weight(long entry) {
+        return chunk(entry).getShort(offset(entry) + 10) & 0xFFFF;
+    }
+
+    private MappedByteBuffer chunk(long entry) {
+        return chunks[(int) (entry / ENTRIES_PER_CHUNK)];
+    }
+
+    private static int offset(long entry) {
+        return (int) (entry % ENTRIES_PER_CHUNK) * ENTRY_BYTES;
+    }
+
+    private static boolean isLegal(ChessGame game, ChessMove move) {
+        ChessPiece piece = game.getBoard().getPiece(move.getStartPosition());
+        return piece != null && piece.getTeamColor() == game.getTeamTurn()
+                && game.validMoves(move.getStartPosition()).contains(move);
+    }
+}
@@ -0,0 +1,93 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.Move;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the moves played in a set of games and writes them out as an
+ * {@link OpeningBook}. A move's weight is the number of times it was played
+ * from the position.
+ */
+public class OpeningBookBuilder {
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    // position key -> packed move -> times played
+    private final Map<Long, Map<Integer, Integer>> positions = new HashMap<>();
+
+    /**
+     * Adds the first moves of a game
+     *
+     * @param start    position the game starts from; not modified
+     * @param moves    moves of the game, in order
+     * @param maxPlies how many of the moves to add
+     * @throws InvalidMoveException if one of the added moves is illegal
+     */
+    public void addGame(ChessGame start, List<ChessMove> moves, int maxPlies) throws InvalidMoveException {
+        ChessGame game = new ChessGame(start);
+        for (int ply = 0; ply < Math.min(maxPlies, moves.size()); ply++) {
+            ChessMove move = moves.get(ply);
+            long key = game.positionKey();
+            game.makeMove(move);
+            add(key, move, 1);
+        }
+    }
+
+    /**
+     * @param key    position key
+     * @param move   move from the position
+     * @param weight added to the move's weight
+     */
+    public void add(long key, ChessMove move, int weight) {
+        positions.computeIfAbsent(key, k -> new HashMap<>())
+                .merge(Move.of(move), weight, Integer::sum);
+    }
+
+    /**
+     * @return number of distinct positions added so far
+     */
+    public int getPositions() {
+        return positions.size();
+    }
+
+    /**
+     * Writes the book, leaving out moves played fewer than minWeight times
+     *
+     * @return number of entries written
+     */
+    public long write(Path path, int minWeight) throws IOException {
+        List<Long> keys = new ArrayList<>(positions.keySet());
+        // the book is searched by unsigned key order
+        keys.sort(Long::compareUnsigned);
+
+        long written = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            for (long key : keys) {
+                List<Map.Entry<Integer, Integer>> moves = new ArrayList<>(positions.get(key).entrySet());
+                moves.sort(Map.Entry.<Integer, Integer>comparingByValue().reversed());
+                for (Map.Entry<Integer, Integer> move : moves) {
+                    if (move.getValue() < minWeight) {
+                        continue;
+                    }
+                    out.writeLong(key);
+                    out.writeShort(move.getKey());
+                    out.writeShort(Math.min(move.getValue(), MAX_WEIGHT));
+                    out.writeInt(0);
+                    written++;
+                }
+            }
+        }
+        return written;
+    }
+}
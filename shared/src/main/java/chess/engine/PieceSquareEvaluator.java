@@ -0,0 +1,91 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.PieceSquareTables;
+
+/**
+ * Material and piece placement from {@link PieceSquareTables}, blended
+ * between the middlegame and endgame scores by how much material is left.
+ * <p>
+ * Normally the scores come from the running sums the board keeps up to date
+ * as moves are made and taken back, so evaluating costs the same however
+ * many pieces there are. The other modes rebuild the sums from the bitboards
+ * on every call, to check the running sums or measure what they save.
+ */
+public class PieceSquareEvaluator implements Evaluator {
+
+    public enum Mode {
+        /** Read the board's running sums */
+        INCREMENTAL,
+        /** Add up every piece on each call */
+        RESCAN,
+        /** Do both and throw if they disagree */
+        VERIFY
+    }
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private final Mode mode;
+
+    public PieceSquareEvaluator() {
+        this(Mode.INCREMENTAL);
+    }
+
+    public PieceSquareEvaluator(Mode mode) {
+        this.mode = mode;
+    }
+
+    @Override
+    public int evaluate(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        int score = switch (mode) {
+            case INCREMENTAL -> taper(board.getMiddlegameScore(), board.getEndgameScore(), board.getPhase());
+            case RESCAN -> rescan(board);
+            case VERIFY -> verify(board);
+        };
+        return game.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    /**
+     * @param board board to score
+     * @return tapered score from White's point of view, adding up every piece
+     */
+    public static int rescan(ChessBoard board) {
+        int middlegame = 0;
+        int endgame = 0;
+        int phase = 0;
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : TYPES) {
+                long pieces = board.getBitboard(color, type);
+                while (pieces != 0) {
+                    int square = Long.numberOfTrailingZeros(pieces);
+                    middlegame += PieceSquareTables.middlegame(color, type, square);
+                    endgame += PieceSquareTables.endgame(color, type, square);
+                    phase += PieceSquareTables.phase(type);
+                    pieces &= pieces - 1;
+                }
+            }
+        }
+        return taper(middlegame, endgame, phase);
+    }
+
+    private static int verify(ChessBoard board) {
+        int incremental = taper(board.getMiddlegameScore(), board.getEndgameScore(), board.getPhase());
+        int rescanned = rescan(board);
+        if (incremental != rescanned) {
+            throw new IllegalStateException("incremental score " + incremental + " but rescan gives " + rescanned);
+        }
+        return incremental;
+    }
+
+    /**
+     * Linear blend: all middlegame at full phase, all endgame with only kings and pawns
+     */
+    static int taper(int middlegame, int endgame, int phase) {
+        // promotions can push the phase past the maximum
+        int weight = Math.min(phase, PieceSquareTables.MAX_PHASE);
+        return (middlegame * weight + endgame * (PieceSquareTables.MAX_PHASE - weight)) / PieceSquareTables.MAX_PHASE;
+    }
+}
@@ -0,0 +1,640 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.MoveUndo;
+import chess.tablebase.Tablebases;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Negamax alpha-beta search with iterative deepening and a quiescence
+ * search at the leaves.
+ * <p>
+ * Moves are tried in order: the best move of the previous iteration at the
+ * root, then captures by most valuable victim / least valuable attacker,
+ * promotions, two killer moves per ply, and the remaining quiet moves by
+ * history score. A {@link TranspositionTable} cuts off positions already
+ * searched deeply enough and supplies the best move found for them last
+ * time, which is tried first. Positions covered by the endgame
+ * {@link Tablebases} aren't searched at all: the table's result is exact.
+ * <p>
+ * Every search gets a time budget. Depth 1 always finishes so there is
+ * always a move to play; after that the clock is checked every
+ * {@value #CHECK_INTERVAL} nodes and an iteration that runs out of time is
+ * thrown away in favour of the last one that completed.
+ * <p>
+ * One instance holds the per-ply buffers, killer and history tables, so it
+ * must only be used by one thread at a time.
+ */
+public class Search {
+    /** Score of being mated right now; mate in n plies scores MATE - n */
+    public static final int MATE = 100_000;
+    public static final int MAX_PLY = 128;
+
+    private static final int INFINITY = MATE + 1;
+    private static final int DEFAULT_HASH_MB = 16;
+    private static final int CHECK_INTERVAL = 1024;
+
+    // move ordering scores, captures above everything but the previous best move
+    private static final int PV_SCORE = 1_000_000;
+    private static final int CAPTURE_SCORE = 100_000;
+    private static final int PROMOTION_SCORE = 90_000;
+    private static final int FIRST_KILLER_SCORE = 80_000;
+    private static final int SECOND_KILLER_SCORE = 79_000;
+    // history scores are halved when they reach this, keeping them below the killers
+    private static final int HISTORY_LIMIT = 50_000;
+
+    private final Evaluator evaluator;
+    private final TranspositionTable table;
+    private Tablebases tablebases = Tablebases.empty();
+
+    private final MoveList[] moveLists = new MoveList[MAX_PLY];
+    private final int[][] orderScores = new int[MAX_PLY][];
+    private final MoveUndo[] undos = new MoveUndo[MAX_PLY];
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[][] history = new int[64][64];
+    // triangular PV table: pv[ply] holds the best line found from that ply
+    private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+
+    private ChessGame game;
+    private ChessBoard board;
+    private long nodes;
+    private int iterationDepth;
+    private long deadline;
+    private boolean aborted;
+    // root moves left out of a multi-PV line because earlier lines already took them
+    private final int[] excludedRootMoves = new int[256];
+    private int excludedCount;
+    // shared by every thread of a LazySmpSearch
+    private final AtomicBoolean stopFlag;
+
+    public Search() {
+        this(new PieceSquareEvaluator());
+    }
+
+    /**
+     * @param evaluator static evaluation used at the leaves
+     */
+    public Search(Evaluator evaluator) {
+        this(evaluator, new TranspositionTable(DEFAULT_HASH_MB));
+    }
+
+    /**
+     * @param evaluator static evaluation used at the leaves
+     * @param table     transposition table, which may be shared with other searches
+     */
+    public Search(Evaluator evaluator, TranspositionTable table) {
+        this(evaluator, table, new AtomicBoolean());
+    }
+
+    /**
+     * @param stopFlag flag that stops the search once set, which may be shared with other searches
+     */
+    Search(Evaluator evaluator, TranspositionTable table, AtomicBoolean stopFlag) {
+        this.evaluator = evaluator;
+        this.table = table;
+        this.stopFlag = stopFlag;
+        for (int i = 0; i < MAX_PLY; i++) {
+            moveLists[i] = new MoveList();
+            orderScores[i] = new int[256];
+            undos[i] = new MoveUndo();
+        }
+    }
+
+    /**
+     * @param tablebases endgame tables to look positions up in, instead of searching them
+     */
+    public void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    /**
+     * Searches until the depth or time limit is reached, whichever comes first
+     *
+     * @param position   position to search; not modified
+     * @param maxDepth   deepest iteration to run, at least 1
+     * @param timeMillis time budget; the search returns within it except for
+     *                   the first iteration, which always completes
+     * @return result of the deepest completed iteration
+     */
+    public SearchResult search(ChessGame position, int maxDepth, long timeMillis) {
+        return search(position, maxDepth, timeMillis, null);
+    }
+
+    /**
+     * @param listener called with the result of every completed iteration, or null
+     * @see #search(ChessGame, int, long)
+     */
+    public SearchResult search(ChessGame position, int maxDepth, long timeMillis, Consumer<SearchResult> listener) {
+        stopFlag.set(false);
+        table.newSearch();
+        return run(position, 1, maxDepth, timeMillis, listener);
+    }
+
+    /**
+     * Iterative deepening without resetting the stop flag or starting a new
+     * table generation, which the caller has done
+     *
+     * @param startDepth depth of the first iteration; only an iteration of
+     *                   depth 1 is exempt from the time limit
+     * @return result of the deepest completed iteration, or null if none completed
+     */
+    SearchResult run(ChessGame position, int startDepth, int maxDepth, long timeMillis,
+                     Consumer<SearchResult> listener) {
+        long start = System.nanoTime();
+        long budgetNanos = begin(position, timeMillis, start);
+
+        int depthLimit = Math.min(Math.max(maxDepth, 1), MAX_PLY - 1);
+        SearchResult best = null;
+        int bestMove = Move.NONE;
+        for (int depth = Math.min(startDepth, depthLimit); depth <= depthLimit; depth++) {
+            iterationDepth = depth;
+            int score = negamax(depth, 0, -INFINITY, INFINITY, bestMove);
+            if (aborted) {
+                break;
+            }
+            bestMove = pvLength[0] > 0 ? pv[0][0] : Move.NONE;
+            best = new SearchResult(principalVariation(), score, depth, nodes, System.nanoTime() - start);
+            if (listener != null) {
+                listener.accept(best);
+            }
+            // the next iteration takes several times as long as this one, so don't start
+            // one we can't finish; a forced mate won't get any better either
+            long elapsed = System.nanoTime() - start;
+            if (best.getBestMove() == null || best.isMate() || elapsed * 2 > budgetNanos) {
+                break;
+            }
+        }
+        game = null;
+        board = null;
+        return best;
+    }
+
+    /**
+     * Multi-PV search: finds the best few moves with a line for each. Every
+     * iteration searches the root once per line, leaving out the moves
+     * earlier lines already took, so the second line is the best line that
+     * doesn't start with the best move, and so on.
+     *
+     * @param lines number of lines wanted; fewer come back if there are fewer legal moves
+     * @return one result per line from the deepest iteration in which every
+     * line completed, best first; empty if the side to move has no legal move
+     * @see #search(ChessGame, int, long)
+     */
+    public List<SearchResult> searchLines(ChessGame position, int lines, int maxDepth, long timeMillis) {
+        stopFlag.set(false);
+        table.newSearch();
+        long start = System.nanoTime();
+        long budgetNanos = begin(position, timeMillis, start);
+
+        int depthLimit = Math.min(Math.max(maxDepth, 1), MAX_PLY - 1);
+        List<SearchResult> best = List.of();
+        int[] lineMoves = new int[Math.max(lines, 1)];
+        for (int depth = 1; depth <= depthLimit; depth++) {
+            iterationDepth = depth;
+            List<SearchResult> results = new ArrayList<>();
+            excludedCount = 0;
+            for (int line = 0; line < lineMoves.length; line++) {
+                int score = negamax(depth, 0, -INFINITY, INFINITY, lineMoves[line]);
+                if (aborted || pvLength[0] == 0) {
+                    break;
+                }
+                excludedRootMoves[excludedCount++] = pv[0][0];
+                results.add(new SearchResult(principalVariation(), score, depth, nodes, System.nanoTime() - start));
+            }
+            if (aborted) {
+                break;
+            }
+            // leaving moves out can only lower a line's score, but the table can nudge it either way
+            results.sort((a, b) -> Integer.compare(b.getScore(), a.getScore()));
+            best = results;
+            Arrays.fill(lineMoves, Move.NONE);
+            for (int line = 0; line < results.size(); line++) {
+                lineMoves[line] = Move.of(results.get(line).getBestMove());
+            }
+            long elapsed = System.nanoTime() - start;
+            if (results.isEmpty() || elapsed * 2 > budgetNanos) {
+                break;
+            }
+        }
+        excludedCount = 0;
+        game = null;
+        board = null;
+        return best;
+    }
+
+    /**
+     * Sets up the state of a new search
+     *
+     * @return the time budget in nanoseconds
+     */
+    private long begin(ChessGame position, long timeMillis, long start) {
+        game = new ChessGame(position);
+        board = game.getBoard();
+        nodes = 0;
+        // capped so a huge budget meaning "no limit" can't overflow
+        long budgetNanos = timeMillis >= Long.MAX_VALUE / 4_000_000 ? Long.MAX_VALUE / 4 : timeMillis * 1_000_000;
+        deadline = start + budgetNanos;
+        aborted = false;
+        excludedCount = 0;
+        clearTables();
+        return budgetNanos;
+    }
+
+    /**
+     * Asks a running search to stop as soon as possible; safe to call from any thread
+     */
+    public void stop() {
+        stopFlag.set(true);
+    }
+
+    /**
+     * @return nodes visited so far by the current or last search
+     */
+    long getNodes() {
+        return nodes;
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta, int pvMove) {
+        pvLength[ply] = ply;
+        if (ply > 0 && game.isRepetition(2)) {
+            return 0;
+        }
+        // a mate on the hundredth ply still counts, as in ChessGame.computeStatus
+        if (ply > 0 && game.getHalfmoveClock() >= 100) {
+            boolean mated = MoveGenerator.checkers(board, game.getTeamTurn()) != 0 && !MoveGenerator.hasLegalMove(game);
+            return mated ? -MATE + ply : 0;
+        }
+        // the root still needs a move, so only positions below it are answered from the tables
+        if (ply > 0 && Long.bitCount(board.getOccupancy()) <= tablebases.getMaxPieces()) {
+            int result = tablebases.probe(game);
+            if (result != Tablebases.NOT_FOUND) {
+                nodes++;
+                return tablebaseScore(result, ply);
+            }
+        }
+        boolean inCheck = MoveGenerator.checkers(board, game.getTeamTurn()) != 0;
+        // look one ply further out of checks so we don't stop right before a mate
+        if (inCheck && ply > 0) {
+            depth++;
+        }
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            return quiescence(ply, alpha, beta);
+        }
+        if (timeUp()) {
+            return 0;
+        }
+        nodes++;
+
+        long key = game.positionKey();
+        long entry = table.probe(key);
+        if (entry != 0) {
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+            if (pvMove == Move.NONE) {
+                pvMove = TranspositionTable.move(entry);
+            }
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        MoveGenerator.legalMoves(game, moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(moves, ply, pvMove);
+
+        MoveUndo undo = undos[ply];
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(moves, ply, i);
+            if (ply == 0 && isExcluded(move)) {
+                continue;
+            }
+            game.makeMove(move, undo);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha, Move.NONE);
+            game.unmakeMove(undo);
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                }
+            }
+            if (alpha >= beta) {
+                if (!Move.isCapture(move) && !Move.isPromotion(move)) {
+                    storeKiller(ply, move);
+                    addHistory(move, depth);
+                }
+                break;
+            }
+        }
+
+        // with root moves left out the score isn't the position's, so it mustn't go in the table
+        if (ply == 0 && excludedCount > 0) {
+            return bestScore;
+        }
+        int bound = bestScore >= beta ? TranspositionTable.LOWER
+                : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        // a fail-low's best move is just the least bad guess, not worth keeping
+        table.store(key, bound == TranspositionTable.UPPER ? Move.NONE : bestMove, depth, bound,
+                scoreToTable(bestScore, ply));
+        return bestScore;
+    }
+
+    private boolean isExcluded(int move) {
+        for (int i = 0; i < excludedCount; i++) {
+            if (Move.sameMove(excludedRootMoves[i], move)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Turns a tablebase result into a search score. Mates too far away for a
+     * mate score still score far above any evaluation, shorter ones higher.
+     */
+    private static int tablebaseScore(int result, int ply) {
+        if (result == Tablebases.DRAW) {
+            return 0;
+        }
+        int distance = ply + Tablebases.distanceToMate(result);
+        int score = distance < MAX_PLY ? MATE - distance : MATE - 2 * MAX_PLY - distance;
+        return Tablebases.isWin(result) ? score : -score;
+    }
+
+    /**
+     * Mate scores count plies from the root; the table stores them counted from
+     * the position itself, so they stay right when it's reached at another ply
+     */
+    private static int scoreToTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int scoreFromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Plays out captures and promotions until the position is quiet, so the
+     * evaluation isn't taken in the middle of an exchange. In check every
+     * evasion is searched, since standing pat isn't an option.
+     */
+    private int quiescence(int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        if (timeUp()) {
+            return 0;
+        }
+        nodes++;
+
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(game);
+        }
+
+        boolean inCheck = MoveGenerator.checkers(board, game.getTeamTurn()) != 0;
+        int bestScore = -INFINITY;
+        if (!inCheck) {
+            bestScore = evaluator.evaluate(game);
+            if (bestScore >= beta) {
+                return bestScore;
+            }
+            alpha = Math.max(alpha, bestScore);
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        MoveGenerator.legalMoves(game, moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        if (!inCheck) {
+            keepTactical(moves);
+        }
+        scoreMoves(moves, ply, Move.NONE);
+
+        MoveUndo undo = undos[ply];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(moves, ply, i);
+            game.makeMove(move, undo);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            game.unmakeMove(undo);
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    private boolean timeUp() {
+        if (aborted) {
+            return true;
+        }
+        // the first iteration always runs to the end
+        if (iterationDepth == 1) {
+            return false;
+        }
+        if ((nodes & (CHECK_INTERVAL - 1)) == 0 && (stopFlag.get() || System.nanoTime() > deadline)) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    private static void keepTactical(MoveList moves) {
+        int kept = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (Move.isCapture(move) || Move.isPromotion(move)) {
+                moves.set(kept++, move);
+            }
+        }
+        moves.truncate(kept);
+    }
+
+    private void scoreMoves(MoveList moves, int ply, int pvMove) {
+        int[] scores = orderScores[ply];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int score;
+            if (pvMove != Move.NONE && Move.sameMove(move, pvMove)) {
+                score = PV_SCORE;
+            } else if (Move.isCapture(move)) {
+                score = CAPTURE_SCORE + 10 * victimValue(move) - attackerValue(move);
+            } else if (Move.isPromotion(move)) {
+                score = PROMOTION_SCORE + MaterialEvaluator.PIECE_VALUES[Move.promotion(move).ordinal()];
+            } else if (Move.sameMove(move, killers[ply][0])) {
+                score = FIRST_KILLER_SCORE;
+            } else if (Move.sameMove(move, killers[ply][1])) {
+                score = SECOND_KILLER_SCORE;
+            } else {
+                score = history[Move.from(move)][Move.to(move)];
+            }
+            scores[i] = score;
+        }
+    }
+
+    /**
+     * Selection sort one step at a time: moves after a cutoff are never sorted
+     */
+    private int pickNext(MoveList moves, int ply, int index) {
+        int[] scores = orderScores[ply];
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            int move = moves.get(best);
+            moves.set(best, moves.get(index));
+            moves.set(index, move);
+            int score = scores[best];
+            scores[best] = scores[index];
+            scores[index] = score;
+        }
+        return moves.get(index);
+    }
+
+    private int victimValue(int move) {
+        if (Move.isEnPassant(move)) {
+            return MaterialEvaluator.PIECE_VALUES[ChessPiece.PieceType.PAWN.ordinal()];
+        }
+        return MaterialEvaluator.PIECE_VALUES[board.getPiece(Move.to(move)).getPieceType().ordinal()];
+    }
+
+    private int attackerValue(int move) {
+        ChessPiece.PieceType type = board.getPiece(Move.from(move)).getPieceType();
+        // the king can only take undefended pieces, so it risks nothing
+        return type == ChessPiece.PieceType.KING ? 0 : MaterialEvaluator.PIECE_VALUES[type.ordinal()];
+    }
+
+    private void storeKiller(int ply, int move) {
+        if (!Move.sameMove(killers[ply][0], move)) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+    }
+
+    private void addHistory(int move, int depth) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        history[from][to] += depth * depth;
+        if (history[from][to] >= HISTORY_LIMIT) {
+            for (int[] row : history) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] /= 2;
+                }
+            }
+        }
+    }
+
+    private void updatePv(int ply, int move) {
+        pv[ply][ply] = move;
+        for (int i = ply + 1; i < pvLength[ply + 1]; i++) {
+            pv[ply][i] = pv[ply + 1][i];
+        }
+        pvLength[ply] = pvLength[ply + 1];
+    }
+
+    /**
+     * The line collected during the search, which stops short wherever a table
+     * cutoff ended it, continued with the table's best moves while they are legal
+     */
+    private List<ChessMove> principalVariation() {
+        List<ChessMove> line = new ArrayList<>(pvLength[0]);
+        int played = 0;
+        int move = pvLength[0] > 0 ? pv[0][0] : Move.NONE;
+        while (move != Move.NONE && played < MAX_PLY && !game.isRepetition(2)) {
+            move = findLegal(moveLists[played], move);
+            if (move == Move.NONE) {
+                break;
+            }
+            line.add(Move.toChessMove(move));
+            game.makeMove(move, undos[played++]);
+            if (played < pvLength[0]) {
+                move = pv[0][played];
+            } else {
+                long entry = table.probe(game.positionKey());
+                move = entry == 0 ? Move.NONE : TranspositionTable.move(entry);
+            }
+        }
+        while (played > 0) {
+            game.unmakeMove(undos[--played]);
+        }
+        return line;
+    }
+
+    /**
+     * @return the generated move matching the given one, with its flags, or 0 if it isn't legal
+     */
+    private int findLegal(MoveList moves, int move) {
+        moves.clear();
+        MoveGenerator.legalMoves(game, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            if (Move.sameMove(moves.get(i), move)) {
+                return moves.get(i);
+            }
+        }
+        return Move.NONE;
+    }
+
+    private void clearTables() {
+        for (int[] pair : killers) {
+            pair[0] = Move.NONE;
+            pair[1] = Move.NONE;
+        }
+        for (int[] row : history) {
+            Arrays.fill(row, 0);
+        }
+        pv[0][0] = Move.NONE;
+        pvLength[0] = 0;
+    }
+}
@@ -0,0 +1,94 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * Outcome of one completed iteration of the search
+ */
+public class SearchResult {
+    private final List<ChessMove> principalVariation;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long nanos;
+
+    SearchResult(List<ChessMove> principalVariation, int score, int depth, long nodes, long nanos) {
+        this.principalVariation = principalVariation;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.nanos = nanos;
+    }
+
+    /**
+     * @return move to play, or null if the side to move has no legal move
+     */
+    public ChessMove getBestMove() {
+        return principalVariation.isEmpty() ? null : principalVariation.get(0);
+    }
+
+    /**
+     * @return the line of play the search expects, starting with the best move
+     */
+    public List<ChessMove> getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    /**
+     * @return score in centipawns for the side to move; see {@link #isMate()}
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return true if the score is a forced mate, for either side
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+
+    /**
+     * @return full moves until mate, negative if the side to move is getting mated, 0 if not a mate
+     */
+    public int getMateIn() {
+        if (!isMate()) {
+            return 0;
+        }
+        int plies = Search.MATE - Math.abs(score);
+        int moves = (plies + 1) / 2;
+        return score > 0 ? moves : -moves;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return positions visited, counting quiescence nodes
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getMillis() {
+        return nanos / 1_000_000;
+    }
+
+    public long getNodesPerSecond() {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+    }
+
+    @Override
+    public String toString() {
+        String scoreText = isMate() ? "mate " + getMateIn() : "cp " + score;
+        StringBuilder pv = new StringBuilder();
+        for (ChessMove move : principalVariation) {
+            pv.append(' ').append(move.toUci());
+        }
+        return String.format("depth %d score %s nodes %d time %d nps %d pv%s",
+                depth, scoreText, nodes, getMillis(), getNodesPerSecond(), pv);
+    }
+}
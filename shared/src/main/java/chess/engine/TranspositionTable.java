@@ -0,0 +1,189 @@
+package chess.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size table of search results, keyed by position, that any number
+ * of search threads can share without locking.
+ * <p>
+ * Each slot is two longs: the entry packed into one long and the key XORed
+ * with it, the same scheme as {@link chess.perft.PerftHashTable}. A reader
+ * only trusts a slot if XORing the two back together gives the key it is
+ * looking for, so a slot half-written by another thread, or overwritten
+ * by a different position, reads as a miss instead of a wrong result.
+ * <pre>
+ * bits  0-15  best move, without flags (0 for none)
+ * bits 16-23  depth searched
+ * bits 24-25  bound: {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+ * bits 26-31  generation of the search that stored it
+ * bits 32-63  score
+ * </pre>
+ * A slot holding a deeper result from the current search is kept rather
+ * than overwritten by a shallower one; results left over from earlier
+ * searches are always replaced.
+ */
+public class TranspositionTable {
+    /** The score is exact */
+    public static final int EXACT = 1;
+    /** The real score is at least the stored one: the search failed high */
+    public static final int LOWER = 2;
+    /** The real score is at most the stored one: the search failed low */
+    public static final int UPPER = 3;
+
+    private static final int MOVE_MASK = 0xFFFF;
+    private static final int DEPTH_SHIFT = 16;
+    private static final int DEPTH_MASK = 0xFF;
+    private static final int BOUND_SHIFT = 24;
+    private static final int BOUND_MASK = 0x3;
+    private static final int GENERATION_SHIFT = 26;
+    private static final int GENERATION_MASK = 0x3F;
+    private static final int SCORE_SHIFT = 32;
+
+    // slots looked at by getFillRate, so it stays cheap on big tables
+    private static final int FILL_SAMPLE = 4096;
+
+    /** Largest table size: 2^29 slots of 16 bytes */
+    public static final int MAX_SIZE_MB = 8192;
+    // two longs per slot, so the slot array stays well inside the maximum array length
+    private static final int MAX_SLOTS = 1 << 29;
+
+    private final long[] slots;
+    private final int indexMask;
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private volatile int generation;
+
+    /**
+     * @param sizeMb approximate memory to use, rounded down to a power of two number of slots
+     * @throws IllegalArgumentException unless 1 &lt;= sizeMb &lt;= {@value #MAX_SIZE_MB}
+     */
+    public TranspositionTable(int sizeMb) {
+        if (sizeMb <= 0 || sizeMb > MAX_SIZE_MB) {
+            throw new IllegalArgumentException("Table size must be 1 to " + MAX_SIZE_MB + " MB: " + sizeMb);
+        }
+        long entries = (sizeMb * 1024L * 1024L) / 16;
+        int capacity = Integer.highestOneBit((int) Math.min(entries, MAX_SLOTS));
+        this.slots = new long[capacity * 2];
+        this.indexMask = capacity - 1;
+    }
+
+    /**
+     * @param key position key, see {@link chess.ChessGame#positionKey()}
+     * @return packed entry, read with the static accessors, or 0 if there isn't one
+     */
+    public long probe(long key) {
+        probes.increment();
+        int index = (int) (key & indexMask) * 2;
+        long data = slots[index + 1];
+        if (data == 0 || (slots[index] ^ data) != key) {
+            return 0;
+        }
+        hits.increment();
+        return data;
+    }
+
+    /**
+     * @param key   position key
+     * @param move  best move found, or 0
+     * @param depth remaining depth the position was searched to
+     * @param bound {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+     * @param score score of the position for the side to move
+     */
+    public void store(long key, int move, int depth, int bound, int score) {
+        int index = (int) (key & indexMask) * 2;
+        long old = slots[index + 1];
+        int currentGeneration = generation;
+        if (old != 0 && generation(old) == currentGeneration && depth(old) > depth
+                && (slots[index] ^ old) != key) {
+            return;
+        }
+        // keep the old best move if this search didn't find one, e.g. after failing low
+        if (move == 0 && (slots[index] ^ old) == key) {
+            move = move(old);
+        }
+        long data = (move & MOVE_MASK)
+                | (long) Math.min(depth, DEPTH_MASK) << DEPTH_SHIFT
+                | (long) bound << BOUND_SHIFT
+                | (long) currentGeneration << GENERATION_SHIFT
+                | (long) score << SCORE_SHIFT;
+        slots[index] = key ^ data;
+        slots[index + 1] = data;
+    }
+
+    /**
+     * Marks the start of a new search, so entries from earlier searches can be replaced first
+     */
+    public void newSearch() {
+        generation = (generation + 1) & GENERATION_MASK;
+    }
+
+    /**
+     * Empties the table and resets the counters
+     */
+    public void clear() {
+        Arrays.fill(slots, 0);
+        probes.reset();
+        hits.reset();
+    }
+
+    public static int move(long entry) {
+        return (int) (entry & MOVE_MASK);
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & DEPTH_MASK;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & BOUND_MASK;
+    }
+
+    public static int score(long entry) {
+        return (int) (entry >> SCORE_SHIFT);
+    }
+
+    private static int generation(long entry) {
+        return (int) (entry >>> GENERATION_SHIFT) & GENERATION_MASK;
+    }
+
+    /**
+     * @return number of slots
+     */
+    public int capacity() {
+        return indexMask + 1;
+    }
+
+    /**
+     * @return fraction of slots holding an entry from the current search,
+     * estimated from the first few thousand slots
+     */
+    public double getFillRate() {
+        int sample = Math.min(capacity(), FILL_SAMPLE);
+        int currentGeneration = generation;
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            long data = slots[i * 2 + 1];
+            if (data != 0 && generation(data) == currentGeneration) {
+                used++;
+            }
+        }
+        return (double) used / sample;
+    }
+
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return fraction of probes that found their position, 0 if there were none
+     */
+    public double getHitRate() {
+        long probeCount = probes.sum();
+        return probeCount == 0 ? 0 : (double) hits.sum() / probeCount;
+    }
+}
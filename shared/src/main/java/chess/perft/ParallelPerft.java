@@ -0,0 +1,120 @@
+package chess.perft;
+
+import chess.ChessGame;
+import chess.MoveList;
+import chess.MoveUndo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft spread over a ForkJoinPool.
+ * <p>
+ * The first {@code splitDepth} plies of the tree are expanded into
+ * separate tasks, each with its own copy of the game, and every task counts
+ * its subtree sequentially. A split depth of 1 makes one task per root move;
+ * deeper splits make more, smaller tasks, which balance better across many
+ * cores. Tasks can optionally share a lock-free {@link PerftHashTable}.
+ */
+public class ParallelPerft {
+    private final int threads;
+    private final int splitDepth;
+    private final PerftHashTable hashTable;
+
+    /**
+     * @param threads    number of worker threads
+     * @param splitDepth plies from the root that are split into separate tasks, at least 1
+     * @param hashTable  shared table of subtree counts, or null to count every node
+     */
+    public ParallelPerft(int threads, int splitDepth, PerftHashTable hashTable) {
+        if (threads < 1 || splitDepth < 1) {
+            throw new IllegalArgumentException("threads and split depth must be at least 1");
+        }
+        this.threads = threads;
+        this.splitDepth = splitDepth;
+        this.hashTable = hashTable;
+    }
+
+    /**
+     * Counts the leaf nodes of the move tree. The game passed in isn't changed.
+     *
+     * @param game  position to start from
+     * @param depth number of plies to search, at least 1
+     * @return number of positions reached at that depth
+     */
+    public long countNodes(ChessGame game, int depth) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.invoke(new PerftTask(new ChessGame(game), depth, 0));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // fork/join tasks are Serializable only by inheritance; these never leave the pool
+    @SuppressWarnings("serial")
+    private class PerftTask extends RecursiveTask<Long> {
+        private final ChessGame game;
+        private final int depth;
+        private final int ply;
+
+        PerftTask(ChessGame game, int depth, int ply) {
+            this.game = game;
+            this.depth = depth;
+            this.ply = ply;
+        }
+
+        @Override
+        protected Long compute() {
+            if (ply >= splitDepth || depth <= 1) {
+                return countNodes(game, depth, Perft.undoStack(depth), Perft.moveStack(depth));
+            }
+
+            List<PerftTask> children = new ArrayList<>();
+            MoveUndo undo = new MoveUndo();
+            MoveList moves = new MoveList();
+            Perft.legalMoves(game, moves);
+            for (int i = 0; i < moves.size(); i++) {
+                // each child works on its own copy of the position after the move
+                game.makeMove(moves.get(i), undo);
+                children.add(new PerftTask(new ChessGame(game), depth - 1, ply + 1));
+                game.unmakeMove(undo);
+            }
+            long nodes = 0;
+            for (PerftTask child : invokeAll(children)) {
+                nodes += child.join();
+            }
+            return nodes;
+        }
+    }
+
+    private long countNodes(ChessGame game, int depth, MoveUndo[] undos, MoveList[] lists) {
+        if (hashTable == null) {
+            return Perft.countNodes(game, depth, undos, lists);
+        }
+
+        MoveList moves = lists[depth - 1];
+        if (depth == 1) {
+            Perft.legalMoves(game, moves);
+            return moves.size();
+        }
+        long key = game.positionKey();
+        long nodes = hashTable.probe(key, depth);
+        if (nodes >= 0) {
+            return nodes;
+        }
+
+        nodes = 0;
+        MoveUndo undo = undos[depth - 1];
+        Perft.legalMoves(game, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            game.makeMove(moves.get(i), undo);
+            nodes += countNodes(game, depth - 1, undos, lists);
+            game.unmakeMove(undo);
+        }
+        hashTable.store(key, depth, nodes);
+        return nodes;
+    }
+}
@@ -0,0 +1,133 @@
+package chess.perft;
+
+import chess.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Perft ("performance test") walks the legal move tree to a fixed depth and
+ * counts what it finds. The counts for well known positions are published,
+ * so matching them shows move generation is correct, and the time taken
+ * measures how fast it is.
+ * <p>
+ * Moves are made and taken back on the game passed in, which is left as it
+ * was when the run finishes.
+ */
+public final class Perft {
+
+    private Perft() {
+    }
+
+    /**
+     * Counts the leaf nodes of the move tree, without any other statistics
+     *
+     * @param game  position to start from
+     * @param depth number of plies to search, at least 1
+     * @return number of positions reached at that depth
+     */
+    public static long countNodes(ChessGame game, int depth) {
+        return countNodes(game, depth, undoStack(depth), moveStack(depth));
+    }
+
+    /**
+     * Walks the move tree and gathers capture, promotion, check and
+     * checkmate counts for the moves made at the last ply
+     *
+     * @param game  position to start from
+     * @param depth number of plies to search, at least 1
+     * @return counts for the leaves of the tree
+     */
+    public static PerftResult run(ChessGame game, int depth) {
+        PerftResult result = new PerftResult();
+        run(game, depth, undoStack(depth), moveStack(depth), result);
+        return result;
+    }
+
+    /**
+     * Counts the leaf nodes under each legal move from the starting position.
+     * Comparing these against another engine narrows a wrong total down to
+     * the move that causes it.
+     *
+     * @param game  position to start from
+     * @param depth number of plies to search, at least 1
+     * @return node count for each root move, in generation order
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        MoveUndo[] undos = undoStack(depth);
+        MoveList[] lists = moveStack(depth);
+        MoveList moves = lists[depth - 1];
+        legalMoves(game, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            game.makeMove(move, undos[depth - 1]);
+            counts.put(Move.toChessMove(move), depth == 1 ? 1 : countNodes(game, depth - 1, undos, lists));
+            game.unmakeMove(undos[depth - 1]);
+        }
+        return counts;
+    }
+
+    static long countNodes(ChessGame game, int depth, MoveUndo[] undos, MoveList[] lists) {
+        MoveList moves = lists[depth - 1];
+        legalMoves(game, moves);
+        if (depth == 1) {
+            // bulk counting: the leaves don't need to be visited
+            return moves.size();
+        }
+        long nodes = 0;
+        MoveUndo undo = undos[depth - 1];
+        for (int i = 0; i < moves.size(); i++) {
+            game.makeMove(moves.get(i), undo);
+            nodes += countNodes(game, depth - 1, undos, lists);
+            game.unmakeMove(undo);
+        }
+        return nodes;
+    }
+
+    static void run(ChessGame game, int depth, MoveUndo[] undos, MoveList[] lists, PerftResult result) {
+        MoveUndo undo = undos[depth - 1];
+        MoveList moves = lists[depth - 1];
+        legalMoves(game, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (depth > 1) {
+                game.makeMove(move, undo);
+                run(game, depth - 1, undos, lists, result);
+                game.unmakeMove(undo);
+                continue;
+            }
+
+            game.makeMove(move, undo);
+            ChessGame.TeamColor defender = game.getTeamTurn();
+            boolean check = game.isInCheck(defender);
+            boolean checkmate = check && !MoveGenerator.hasLegalMove(game);
+            game.unmakeMove(undo);
+
+            result.countLeaf(Move.isCapture(move), Move.isPromotion(move), check, checkmate);
+        }
+    }
+
+    static MoveUndo[] undoStack(int depth) {
+        MoveUndo[] undos = new MoveUndo[depth];
+        for (int i = 0; i < depth; i++) {
+            undos[i] = new MoveUndo();
+        }
+        return undos;
+    }
+
+    /**
+     * One reusable move list per ply, so generating moves doesn't allocate
+     */
+    static MoveList[] moveStack(int depth) {
+        MoveList[] lists = new MoveList[depth];
+        for (int i = 0; i < depth; i++) {
+            lists[i] = new MoveList();
+        }
+        return lists;
+    }
+
+    static void legalMoves(ChessGame game, MoveList moves) {
+        MoveGenerator.legalMoves(game, moves);
+    }
+}
@@ -0,0 +1,64 @@
+package chess.perft;
+
+/**
+ * Fixed-size table of subtree node counts, keyed by position and depth,
+ * that any number of perft threads can share without locking.
+ * <p>
+ * Each slot is two longs: the data (node count and depth) and the key
+ * XORed with the data. A reader only trusts a slot if XORing the two back
+ * together gives the key it is looking for, so a slot half-written by
+ * another thread, or overwritten by a different position, reads as a miss
+ * instead of a wrong count. Slots are always replaced on store.
+ */
+public class PerftHashTable {
+    private static final int DEPTH_BITS = 8;
+    private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+
+    /** Largest table size: 2^29 slots of 16 bytes */
+    public static final int MAX_SIZE_MB = 8192;
+    // two longs per slot, so the slot array stays well inside the maximum array length
+    private static final int MAX_SLOTS = 1 << 29;
+
+    private final long[] slots;
+    private final int indexMask;
+
+    /**
+     * @param sizeMb approximate memory to use, rounded down to a power of two number of slots
+     * @throws IllegalArgumentException unless 1 &lt;= sizeMb &lt;= {@value #MAX_SIZE_MB}
+     */
+    public PerftHashTable(int sizeMb) {
+        if (sizeMb <= 0 || sizeMb > MAX_SIZE_MB) {
+            throw new IllegalArgumentException("Table size must be 1 to " + MAX_SIZE_MB + " MB: " + sizeMb);
+        }
+        long entries = (sizeMb * 1024L * 1024L) / 16;
+        int capacity = Integer.highestOneBit((int) Math.min(entries, MAX_SLOTS));
+        this.slots = new long[capacity * 2];
+        this.indexMask = capacity - 1;
+    }
+
+    /**
+     * @param key   Zobrist key of the position
+     * @param depth remaining depth
+     * @return stored node count, or -1 if there isn't one
+     */
+    public long probe(long key, int depth) {
+        int index = (int) (key & indexMask) * 2;
+        long data = slots[index + 1];
+        if ((slots[index] ^ data) != key || (data & DEPTH_MASK) != depth) {
+            return -1;
+        }
+        return data >>> DEPTH_BITS;
+    }
+
+    /**
+     * @param key   Zobrist key of the position
+     * @param depth remaining depth
+     * @param nodes node count of the subtree
+     */
+    public void store(long key, int depth, long nodes) {
+        int index = (int) (key & indexMask) * 2;
+        long data = (nodes << DEPTH_BITS) | depth;
+        slots[index] = key ^ data;
+        slots[index + 1] = data;
+    }
+}
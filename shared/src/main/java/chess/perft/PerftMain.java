@@ -0,0 +1,183 @@
+package chess.perft;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Fen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line entry point for perft.
+ * <pre>
+ * PerftMain &lt;depth&gt; [fen]            counts per depth, from 1 up to depth
+ * PerftMain divide &lt;depth&gt; [fen]     node count under each root move
+ * PerftMain reference [maxDepth]      checks the reference positions against their published counts
+ * PerftMain parallel &lt;depth&gt; [fen]   node count using several threads
+ * PerftMain scaling &lt;depth&gt; [fen]    parallel node count with 1, 2, 4 ... threads, with speedups
+ * </pre>
+ * The position defaults to the standard starting position. The parallel
+ * modes also take {@code --threads=N} (default: every core),
+ * {@code --split=N} (plies split into tasks, default 2) and
+ * {@code --hash=MB} (shared hash table size, default none).
+ */
+public class PerftMain {
+
+    public static void main(String[] args) {
+        List<String> positional = new ArrayList<>();
+        int threads = Runtime.getRuntime().availableProcessors();
+        int split = 2;
+        int hashMb = 0;
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--threads=")) {
+                    threads = Integer.parseInt(arg.substring("--threads=".length()));
+                } else if (arg.startsWith("--split=")) {
+                    split = Integer.parseInt(arg.substring("--split=".length()));
+                } else if (arg.startsWith("--hash=")) {
+                    hashMb = Integer.parseInt(arg.substring("--hash=".length()));
+                } else {
+                    positional.add(arg);
+                }
+            }
+            if (positional.isEmpty()) {
+                usage();
+                return;
+            }
+
+            switch (positional.get(0)) {
+                case "divide" -> divide(Integer.parseInt(positional.get(1)), fenArg(positional, 2));
+                case "reference" -> reference(positional.size() > 1 ? Integer.parseInt(positional.get(1)) : 5);
+                case "parallel" -> parallel(Integer.parseInt(positional.get(1)), fenArg(positional, 2),
+                        threads, split, hashMb);
+                case "scaling" -> scaling(Integer.parseInt(positional.get(1)), fenArg(positional, 2),
+                        threads, split, hashMb);
+                default -> stats(Integer.parseInt(positional.get(0)), fenArg(positional, 1));
+            }
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            usage();
+        }
+    }
+
+    private static void stats(int depth, String fen) {
+        ChessGame game = Fen.parse(fen);
+        System.out.println(fen);
+        System.out.printf("%5s %14s %12s %10s %12s %10s %10s %14s%n",
+                "depth", "nodes", "captures", "promotions", "checks", "mates", "ms", "nodes/sec");
+        for (int d = 1; d <= depth; d++) {
+            long start = System.nanoTime();
+            PerftResult result = Perft.run(game, d);
+            long nanos = System.nanoTime() - start;
+            System.out.printf("%5d %14d %12d %10d %12d %10d %10d %14d%n", d, result.getNodes(), result.getCaptures(),
+                    result.getPromotions(), result.getChecks(), result.getCheckmates(),
+                    nanos / 1_000_000, nodesPerSecond(result.getNodes(), nanos));
+        }
+    }
+
+    private static void divide(int depth, String fen) {
+        ChessGame game = Fen.parse(fen);
+        long start = System.nanoTime();
+        Map<ChessMove, Long> counts = Perft.divide(game, depth);
+        long nanos = System.nanoTime() - start;
+
+        long total = 0;
+        for (Map.Entry<ChessMove, Long> entry : counts.entrySet()) {
+            System.out.printf("%s: %d%n", entry.getKey().toUci(), entry.getValue());
+            total += entry.getValue();
+        }
+        System.out.printf("%nmoves: %d%nnodes: %d%ntime: %d ms (%d nodes/sec)%n",
+                counts.size(), total, nanos / 1_000_000, nodesPerSecond(total, nanos));
+    }
+
+    private static void reference(int maxDepth) {
+        boolean allPassed = true;
+        long totalNodes = 0;
+        long totalNanos = 0;
+        for (ReferencePosition position : ReferencePosition.values()) {
+            System.out.printf("%s  %s%n", position, position.getFen());
+            ChessGame game = Fen.parse(position.getFen());
+            for (int d = 1; d <= Math.min(maxDepth, position.getMaxDepth()); d++) {
+                long start = System.nanoTime();
+                long nodes = Perft.countNodes(game, d);
+                long nanos = System.nanoTime() - start;
+                totalNodes += nodes;
+                totalNanos += nanos;
+
+                long expected = position.getExpectedNodes(d);
+                boolean passed = nodes == expected;
+                allPassed &= passed;
+                System.out.printf("  depth %d: %12d %-4s (expected %d) %8d ms %12d nodes/sec%n", d, nodes,
+                        passed ? "OK" : "FAIL", expected, nanos / 1_000_000, nodesPerSecond(nodes, nanos));
+            }
+        }
+        System.out.printf("%n%s, %d nodes/sec overall%n", allPassed ? "All passed" : "FAILURES",
+                nodesPerSecond(totalNodes, totalNanos));
+        if (!allPassed) {
+            System.exit(1);
+        }
+    }
+
+    private static void parallel(int depth, String fen, int threads, int split, int hashMb) {
+        ChessGame game = Fen.parse(fen);
+        PerftHashTable table = hashMb > 0 ? new PerftHashTable(hashMb) : null;
+
+        long start = System.nanoTime();
+        long nodes = new ParallelPerft(threads, split, table).countNodes(game, depth);
+        long nanos = System.nanoTime() - start;
+        System.out.printf("%s%ndepth %d, %d threads, split %d, hash %d MB%nnodes: %d%ntime: %d ms (%d nodes/sec)%n",
+                fen, depth, threads, split, hashMb, nodes, nanos / 1_000_000, nodesPerSecond(nodes, nanos));
+    }
+
+    /**
+     * Runs the same parallel perft with a doubling number of threads up to the maximum,
+     * reporting each run's speedup over the single-threaded one
+     */
+    private static void scaling(int depth, String fen, int maxThreads, int split, int hashMb) {
+        ChessGame game = Fen.parse(fen);
+        System.out.printf("%s%ndepth %d, split %d, hash %d MB%n", fen, depth, split, hashMb);
+        System.out.printf("%7s %14s %10s %14s %8s %10s%n", "threads", "nodes", "ms", "nodes/sec", "speedup", "efficiency");
+
+        long baseNanos = 0;
+        List<Integer> counts = new ArrayList<>();
+        for (int t = 1; t < maxThreads; t *= 2) {
+            counts.add(t);
+        }
+        counts.add(maxThreads);
+        for (int threads : counts) {
+            // a fresh table per run, so later runs don't get a head start from earlier ones
+            PerftHashTable table = hashMb > 0 ? new PerftHashTable(hashMb) : null;
+            long start = System.nanoTime();
+            long nodes = new ParallelPerft(threads, split, table).countNodes(game, depth);
+            long nanos = System.nanoTime() - start;
+            if (threads == 1) {
+                baseNanos = nanos;
+            }
+            double speedup = (double) baseNanos / nanos;
+            System.out.printf("%7d %14d %10d %14d %7.2fx %9.0f%%%n", threads, nodes, nanos / 1_000_000,
+                    nodesPerSecond(nodes, nanos), speedup, 100 * speedup / threads);
+        }
+    }
+
+    private static String fenArg(List<String> args, int from) {
+        if (args.size() <= from) {
+            return Fen.START_POSITION;
+        }
+        return String.join(" ", args.subList(from, args.size()));
+    }
+
+    static long nodesPerSecond(long nodes, long nanos) {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+    }
+
+    private static void usage() {
+        System.out.println("""
+                Usage:
+                  PerftMain <depth> [fen]          counts per depth, from 1 up to depth
+                  PerftMain divide <depth> [fen]   node count under each root move
+                  PerftMain reference [maxDepth]   check the reference positions (default max depth 5)
+                  PerftMain parallel <depth> [fen] node count using several threads
+                  PerftMain scaling <depth> [fen]  parallel node count with 1, 2, 4 ... threads
+                Parallel options: --threads=N (default all cores) --split=N (default 2) --hash=MB (default off)""");
+    }
+}
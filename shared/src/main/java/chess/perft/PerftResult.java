@@ -0,0 +1,67 @@
+package chess.perft;
+
+/**
+ * Counts gathered over the leaf nodes of one perft run
+ */
+public class PerftResult {
+    private long nodes;
+    private long captures;
+    private long promotions;
+    private long checks;
+    private long checkmates;
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getCaptures() {
+        return captures;
+    }
+
+    public long getPromotions() {
+        return promotions;
+    }
+
+    public long getChecks() {
+        return checks;
+    }
+
+    public long getCheckmates() {
+        return checkmates;
+    }
+
+    void countLeaf(boolean capture, boolean promotion, boolean check, boolean checkmate) {
+        nodes++;
+        if (capture) {
+            captures++;
+        }
+        if (promotion) {
+            promotions++;
+        }
+        if (check) {
+            checks++;
+        }
+        if (checkmate) {
+            checkmates++;
+        }
+    }
+
+    /**
+     * Adds another result's counts into this one
+     *
+     * @param other result to add
+     */
+    public void add(PerftResult other) {
+        nodes += other.nodes;
+        captures += other.captures;
+        promotions += other.promotions;
+        checks += other.checks;
+        checkmates += other.checkmates;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("nodes=%d captures=%d promotions=%d checks=%d checkmates=%d",
+                nodes, captures, promotions, checks, checkmates);
+    }
+}
@@ -0,0 +1,228 @@
+package chess.tablebase;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The pieces of an endgame, such as KQvK or KRvKP, in the order a table
+ * indexes them: White's king, Black's king, then White's other pieces and
+ * Black's other pieces, each strongest first.
+ * <p>
+ * A table covers one material signature with its colors either way round:
+ * KvKQ is looked up in KQvK with the board flipped. The canonical way round
+ * gives White the more valuable side, breaking ties by name.
+ */
+public final class Material {
+    public static final int MAX_PIECES = 4;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    // strongest first, the usual order for naming endgames
+    private static final String ORDER = "KQRBNP";
+    private static final int[] VALUES = {0, 9, 3, 3, 5, 1};
+
+    // pieces as color * 6 + PieceType ordinal, like ChessBoard's bitboard index
+    private final int[] pieces;
+    private final String name;
+
+    private Material(int[] pieces) {
+        this.pieces = pieces;
+        this.name = side(ChessGame.TeamColor.WHITE) + "v" + side(ChessGame.TeamColor.BLACK);
+    }
+
+    /**
+     * @param name signature such as "KQvK", with each side's king first
+     * @throws IllegalArgumentException if the name isn't a signature of at most {@value #MAX_PIECES} pieces
+     */
+    public static Material parse(String name) {
+        String[] sides = name.toUpperCase().split("V");
+        if (sides.length != 2 || !sides[0].startsWith("K") || !sides[1].startsWith("K")) {
+            throw new IllegalArgumentException("Bad material: " + name);
+        }
+        List<Integer> codes = new ArrayList<>();
+        for (int color = 0; color < 2; color++) {
+            for (int i = 1; i < sides[color].length(); i++) {
+                int type = typeOf(sides[color].charAt(i));
+                if (type < 0 || type == ChessPiece.PieceType.KING.ordinal()) {
+                    throw new IllegalArgumentException("Bad material: " + name);
+                }
+                codes.add(color * 6 + type);
+            }
+        }
+        return of(codes);
+    }
+
+    /**
+     * @param others pieces other than the two kings, as color * 6 + PieceType ordinal, in any order
+     */
+    static Material of(List<Integer> others) {
+        if (others.size() + 2 > MAX_PIECES) {
+            throw new IllegalArgumentException("Tables go up to " + MAX_PIECES + " pieces");
+        }
+        int[] pieces = new int[others.size() + 2];
+        pieces[0] = ChessPiece.PieceType.KING.ordinal();
+        pieces[1] = 6 + ChessPiece.PieceType.KING.ordinal();
+        List<Integer> sorted = new ArrayList<>(others);
+        sorted.sort((a, b) -> a / 6 != b / 6 ? Integer.compare(a / 6, b / 6)
+                : Integer.compare(ORDER.indexOf(letter(a)), ORDER.indexOf(letter(b))));
+        for (int i = 0; i < sorted.size(); i++) {
+            pieces[i + 2] = sorted.get(i);
+        }
+        return new Material(pieces);
+    }
+
+    /**
+     * @return true if this is the way round tables are stored; otherwise look up {@link #flipped()}
+     */
+    public boolean isCanonical() {
+        int white = value(ChessGame.TeamColor.WHITE);
+        int black = value(ChessGame.TeamColor.BLACK);
+        if (white != black) {
+            return white > black;
+        }
+        return side(ChessGame.TeamColor.WHITE).compareTo(side(ChessGame.TeamColor.BLACK)) >= 0;
+    }
+
+    /**
+     * @return the same pieces with the colors swapped
+     */
+    public Material flipped() {
+        List<Integer> others = new ArrayList<>();
+        for (int i = 2; i < pieces.length; i++) {
+            others.add((pieces[i] + 6) % 12);
+        }
+        return of(others);
+    }
+
+    public Material canonical() {
+        return isCanonical() ? this : flipped();
+    }
+
+    /**
+     * @return the material left after the piece at the given index is captured
+     */
+    Material without(int index) {
+        List<Integer> others = new ArrayList<>();
+        for (int i = 2; i < pieces.length; i++) {
+            if (i != index) {
+                others.add(pieces[i]);
+            }
+        }
+        return of(others);
+    }
+
+    /**
+     * @return every canonical material with 3 to maxPieces pieces, fewest pieces first
+     */
+    public static List<Material> all(int maxPieces) {
+        List<Material> all = new ArrayList<>();
+        for (int count = 1; count <= Math.min(maxPieces, MAX_PIECES) - 2; count++) {
+            addAll(all, new ArrayList<>(), count, 0);
+        }
+        return all;
+    }
+
+    private static void addAll(List<Material> all, List<Integer> others, int count, int fromCode) {
+        if (others.size() == count) {
+            Material material = of(others);
+            if (material.isCanonical() && !all.contains(material)) {
+                all.add(material);
+            }
+            return;
+        }
+        for (int code = fromCode; code < 12; code++) {
+            if (code % 6 != ChessPiece.PieceType.KING.ordinal()) {
+                others.add(code);
+                addAll(all, others, count, code);
+                others.remove(others.size() - 1);
+            }
+        }
+    }
+
+    public int size() {
+        return pieces.length;
+    }
+
+    /**
+     * @return piece at the given index, as color * 6 + PieceType ordinal
+     */
+    public int piece(int index) {
+        return pieces[index];
+    }
+
+    public static ChessGame.TeamColor color(int piece) {
+        return piece < 6 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+    }
+
+    public static ChessPiece.PieceType type(int piece) {
+        return TYPES[piece % 6];
+    }
+
+    /**
+     * @return number of positions in a table, with either side to move
+     */
+    public long positions() {
+        return 2L << (6 * pieces.length);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private String side(ChessGame.TeamColor color) {
+        StringBuilder side = new StringBuilder();
+        for (int piece : pieces) {
+            if (color(piece) == color) {
+                side.append(letter(piece));
+            }
+        }
+        return side.toString();
+    }
+
+    private int value(ChessGame.TeamColor color) {
+        int value = 0;
+        for (int piece : pieces) {
+            if (color(piece) == color) {
+                value += VALUES[piece % 6];
+            }
+        }
+        return value;
+    }
+
+    private static char letter(int piece) {
+        return switch (type(piece)) {
+            case KING -> 'K';
+            case QUEEN -> 'Q';
+            case BISHOP -> 'B';
+            case KNIGHT -> 'N';
+            case ROOK -> 'R';
+            case PAWN -> 'P';
+        };
+    }
+
+    private static int typeOf(char letter) {
+        for (ChessPiece.PieceType type : TYPES) {
+            if (letter(type.ordinal()) == letter) {
+                return type.ordinal();
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Material other && name.equals(other.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,98 @@
+package chess.tablebase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One endgame table, memory-mapped from its file.
+ * <p>
+ * The file is a 16-byte header (magic, version, piece count, longest
+ * distance to mate) followed by one byte per position, indexed by side to
+ * move and then the square of each piece in {@link Material} order:
+ * {@code ((stm * 64 + square0) * 64 + square1) ...}. A byte is
+ * <ul>
+ * <li>0 for a draw,</li>
+ * <li>1 + the distance to mate in plies otherwise: odd distances are wins
+ * for the side to move, even ones losses, 0 being checkmated already,</li>
+ * <li>255 for positions that can't occur, such as two pieces on one square.</li>
+ * </ul>
+ * Castling and en passant are left out, and the fifty-move rule is ignored.
+ */
+public final class Tablebase {
+    public static final String EXTENSION = ".tbl";
+
+    static final int MAGIC = 0x43485442;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int INVALID = 255;
+
+    private final Material material;
+    private final MappedByteBuffer data;
+    private final int maxDistance;
+
+    private Tablebase(Material material, MappedByteBuffer data, int maxDistance) {
+        this.material = material;
+        this.data = data;
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * @throws IOException if the file can't be read or doesn't hold a table for the material
+     */
+    static Tablebase open(Path path, Material material) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() != HEADER_BYTES + material.positions()) {
+                throw new IOException(path + " is not a " + material + " table");
+            }
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            data.order(ByteOrder.BIG_ENDIAN);
+            if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION || data.getInt(8) != material.size()) {
+                throw new IOException(path + " is not a " + material + " table");
+            }
+            return new Tablebase(material, data, data.getInt(12));
+        }
+    }
+
+    /**
+     * Writes a table's file
+     *
+     * @param entries     one byte per position, as described above
+     * @param maxDistance longest distance to mate in the table, in plies
+     */
+    static void write(Path path, Material material, byte[] entries, int maxDistance) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.BIG_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(material.size()).putInt(maxDistance).flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(header);
+            ByteBuffer body = ByteBuffer.wrap(entries);
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+        }
+    }
+
+    /**
+     * @param index position index, as described above
+     * @return the position's byte
+     */
+    int entry(long index) {
+        return data.get(HEADER_BYTES + (int) index) & 0xFF;
+    }
+
+    public Material getMaterial() {
+        return material;
+    }
+
+    /**
+     * @return longest distance to mate in the table, in plies
+     */
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+}
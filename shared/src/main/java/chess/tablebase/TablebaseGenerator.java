@@ -0,0 +1,404 @@
+package chess.tablebase;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.calculators.AttackTables;
+import chess.calculators.MagicBitboards;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * Builds endgame tables by retrograde analysis, one pass per ply of
+ * distance to mate.
+ * <p>
+ * Pass 0 finds the checkmates. Each odd pass n then marks as won in n every
+ * position with a move into a position lost in n - 1, and each even pass
+ * marks as lost in n every position whose moves all lead to positions won
+ * for the opponent, the longest win being n - 1. Captures and promotions
+ * leave the table for a smaller or different one, which is generated first
+ * and looked up. Once no pass can find anything more, whatever is left is
+ * a draw.
+ * <p>
+ * A pass reads only results of earlier passes and each position is written
+ * by the one thread that looks at it, so the positions are simply split
+ * between threads, pass by pass. Results depend only on the rules, so the
+ * tables come out the same on any machine and with any number of threads.
+ */
+public class TablebaseGenerator {
+    // positions per task; small enough to balance, large enough to not matter
+    private static final int TASK_SIZE = 1 << 13;
+    private static final int MAX_DISTANCE = 253;
+    private static final ChessPiece.PieceType[] PROMOTIONS = {ChessPiece.PieceType.QUEEN,
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT};
+
+    private final Path dir;
+    private final int threads;
+    private final Tablebases tablebases;
+
+    /**
+     * @param dir     directory to write tables to; tables already in it are used, not generated again
+     * @param threads number of worker threads
+     */
+    public TablebaseGenerator(Path dir, int threads) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        Files.createDirectories(dir);
+        this.dir = dir;
+        this.threads = threads;
+        this.tablebases = Tablebases.open(dir);
+    }
+
+    /**
+     * Generates the table for the material, and before it every table it leads to
+     *
+     * @param log told about every table as it's written, or null
+     * @return every table generated so far or found in the directory
+     */
+    public Tablebases generate(Material material, Consumer<String> log) throws IOException {
+        material = material.canonical();
+        if (tablebases.contains(material)) {
+            return tablebases;
+        }
+        for (Material next : leadsTo(material)) {
+            generate(next, log);
+        }
+
+        long start = System.nanoTime();
+        Generation generation = new Generation(material);
+        int maxDistance = generation.run();
+        Path path = dir.resolve(material.getName() + Tablebase.EXTENSION);
+        Tablebase.write(path, material, generation.entries, maxDistance);
+        tablebases.add(Tablebase.open(path, material));
+        if (log != null) {
+            log.accept(String.format("%s: %d positions, longest mate %d plies, %d ms", material,
+                    material.positions(), maxDistance, (System.nanoTime() - start) / 1_000_000));
+        }
+        return tablebases;
+    }
+
+    /**
+     * @return the materials a capture or promotion can turn this one into
+     */
+    private static Set<Material> leadsTo(Material material) {
+        Set<Material> next = new LinkedHashSet<>();
+        for (int i = 2; i < material.size(); i++) {
+            next.add(material.without(i));
+        }
+        for (int i = 2; i < material.size(); i++) {
+            if (Material.type(material.piece(i)) != ChessPiece.PieceType.PAWN) {
+                continue;
+            }
+            for (ChessPiece.PieceType promotion : PROMOTIONS) {
+                // promoting, possibly while taking an enemy piece
+                List<Integer> promoted = others(material);
+                promoted.set(i - 2, material.piece(i) / 6 * 6 + promotion.ordinal());
+                next.add(Material.of(promoted));
+                for (int j = 2; j < material.size(); j++) {
+                    if (material.piece(j) / 6 != material.piece(i) / 6) {
+                        List<Integer> captured = new ArrayList<>(promoted);
+                        captured.remove(j - 2);
+                        next.add(Material.of(captured));
+                    }
+                }
+            }
+        }
+        return next;
+    }
+
+    private static List<Integer> others(Material material) {
+        List<Integer> others = new ArrayList<>();
+        for (int i = 2; i < material.size(); i++) {
+            others.add(material.piece(i));
+        }
+        return others;
+    }
+
+    /**
+     * The work of generating one table
+     */
+    private final class Generation {
+        private final Material material;
+        private final int size;
+        private final int[] pieces;
+        private final byte[] entries;
+        private int maxSubDistance;
+
+        Generation(Material material) {
+            this.material = material;
+            this.size = material.size();
+            this.pieces = new int[size];
+            for (int i = 0; i < size; i++) {
+                pieces[i] = material.piece(i);
+            }
+            this.entries = new byte[(int) material.positions()];
+        }
+
+        /**
+         * @return longest distance to mate found
+         */
+        int run() {
+            // captures and promotions can lead into the longest mates of other tables
+            for (Material next : leadsTo(material)) {
+                maxSubDistance = Math.max(maxSubDistance, tablebases.maxDistance(next));
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                int lastFound = 0;
+                for (int pass = 0; ; pass++) {
+                    if (pass > MAX_DISTANCE) {
+                        throw new IllegalStateException(material + " has mates longer than a table can hold");
+                    }
+                    long found = pool.invoke(new PassTask(pass, 0, entries.length));
+                    if (found > 0) {
+                        lastFound = pass;
+                    }
+                    // two empty passes in a row leave nothing for the next one to build on
+                    if (pass > lastFound + 1 && pass > maxSubDistance + 1) {
+                        return lastFound;
+                    }
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        /**
+         * Resolves the positions of one range in one pass
+         */
+        @SuppressWarnings("serial")
+        private final class PassTask extends RecursiveTask<Long> {
+            private final int pass;
+            private final int from;
+            private final int to;
+
+            PassTask(int pass, int from, int to) {
+                this.pass = pass;
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected Long compute() {
+                if (to - from > TASK_SIZE) {
+                    int mid = (from + to) >>> 1;
+                    PassTask left = new PassTask(pass, from, mid);
+                    left.fork();
+                    long right = new PassTask(pass, mid, to).compute();
+                    return right + left.join();
+                }
+                Worker worker = new Worker();
+                long found = 0;
+                for (int index = from; index < to; index++) {
+                    if (entries[index] != 0) {
+                        continue;
+                    }
+                    int entry = worker.resolve(index, pass);
+                    if (entry != 0) {
+                        entries[index] = (byte) entry;
+                        if (entry != Tablebase.INVALID) {
+                            found++;
+                        }
+                    }
+                }
+                return found;
+            }
+        }
+
+        /**
+         * Scratch space for looking at one position at a time
+         */
+        private final class Worker {
+            private final int[] squares = new int[size];
+            private final int[] subPieces = new int[size];
+            private final int[] subSquares = new int[size];
+            private final long[] colors = new long[2];
+
+            /**
+             * @return the position's table byte if this pass settles it, otherwise 0
+             */
+            int resolve(int index, int pass) {
+                int sideToMove = index >>> (6 * size);
+                for (int i = size - 1, rest = index; i >= 0; i--, rest >>>= 6) {
+                    squares[i] = rest & 63;
+                }
+
+                long occupied = 0;
+                colors[0] = 0;
+                colors[1] = 0;
+                for (int i = 0; i < size; i++) {
+                    long bit = 1L << squares[i];
+                    if ((occupied & bit) != 0) {
+                        return Tablebase.INVALID;
+                    }
+                    occupied |= bit;
+                    colors[pieces[i] / 6] |= bit;
+                    if (Material.type(pieces[i]) == ChessPiece.PieceType.PAWN
+                            && (squares[i] < 8 || squares[i] >= 56)) {
+                        return Tablebase.INVALID;
+                    }
+                }
+                int opponent = sideToMove ^ 1;
+                // the side that just moved can't have left its king in check
+                if (attacked(squares[opponent], sideToMove, occupied, -1)) {
+                    return Tablebase.INVALID;
+                }
+
+                boolean anyMove = false;
+                int longestWin = -1;
+                for (int i = 0; i < size; i++) {
+                    if (pieces[i] / 6 != sideToMove) {
+                        continue;
+                    }
+                    int from = squares[i];
+                    ChessPiece.PieceType type = Material.type(pieces[i]);
+                    long targets = targets(type, sideToMove, from, occupied);
+                    while (targets != 0) {
+                        int to = Long.numberOfTrailingZeros(targets);
+                        targets &= targets - 1;
+                        int captured = pieceAt(to, opponent);
+                        long after = (occupied & ~(1L << from)) | (1L << to);
+
+                        squares[i] = to;
+                        boolean legal = !attacked(squares[sideToMove], opponent, after, captured);
+                        if (legal) {
+                            anyMove = true;
+                            boolean promotes = type == ChessPiece.PieceType.PAWN && (to < 8 || to >= 56);
+                            for (int p = 0; p < (promotes ? PROMOTIONS.length : 1); p++) {
+                                int child = promotes || captured >= 0
+                                        ? probeConversion(i, promotes ? PROMOTIONS[p] : null, captured, opponent)
+                                        : entries[childIndex(opponent)] & 0xFF;
+                                if (pass % 2 == 1) {
+                                    // a move into a position lost in pass - 1
+                                    if (Tablebases.isLoss(child) && child - 1 == pass - 1) {
+                                        squares[i] = from;
+                                        return pass + 1;
+                                    }
+                                } else {
+                                    if (!Tablebases.isWin(child)) {
+                                        squares[i] = from;
+                                        return 0;
+                                    }
+                                    longestWin = Math.max(longestWin, child - 1);
+                                }
+                            }
+                        }
+                        squares[i] = from;
+                    }
+                }
+
+                if (!anyMove) {
+                    boolean inCheck = attacked(squares[sideToMove], opponent, occupied, -1);
+                    // checkmate is lost in 0; stalemate stays a draw
+                    return pass == 0 && inCheck ? 1 : 0;
+                }
+                return pass % 2 == 0 && longestWin == pass - 1 ? pass + 1 : 0;
+            }
+
+            private long targets(ChessPiece.PieceType type, int color, int from, long occupied) {
+                long own = colors[color];
+                return switch (type) {
+                    case KING -> AttackTables.kingAttacks(from) & ~own;
+                    case QUEEN -> MagicBitboards.queenAttacks(from, occupied) & ~own;
+                    case ROOK -> MagicBitboards.rookAttacks(from, occupied) & ~own;
+                    case BISHOP -> MagicBitboards.bishopAttacks(from, occupied) & ~own;
+                    case KNIGHT -> AttackTables.knightAttacks(from) & ~own;
+                    case PAWN -> {
+                        int step = color == 0 ? 8 : -8;
+                        long moves = AttackTables.pawnAttacks(teamColor(color), from) & colors[color ^ 1];
+                        int one = from + step;
+                        if ((occupied & (1L << one)) == 0) {
+                            moves |= 1L << one;
+                            int startRank = color == 0 ? 1 : 6;
+                            int two = one + step;
+                            if (from / 8 == startRank && (occupied & (1L << two)) == 0) {
+                                moves |= 1L << two;
+                            }
+                        }
+                        yield moves;
+                    }
+                };
+            }
+
+            /**
+             * @param skip index of a piece that has just been captured, or -1
+             */
+            private boolean attacked(int square, int byColor, long occupied, int skip) {
+                for (int i = 0; i < size; i++) {
+                    if (i == skip || pieces[i] / 6 != byColor) {
+                        continue;
+                    }
+                    int from = squares[i];
+                    long attacks = switch (Material.type(pieces[i])) {
+                        case KING -> AttackTables.kingAttacks(from);
+                        case QUEEN -> MagicBitboards.queenAttacks(from, occupied);
+                        case ROOK -> MagicBitboards.rookAttacks(from, occupied);
+                        case BISHOP -> MagicBitboards.bishopAttacks(from, occupied);
+                        case KNIGHT -> AttackTables.knightAttacks(from);
+                        case PAWN -> AttackTables.pawnAttacks(teamColor(byColor), from);
+                    };
+                    if ((attacks & (1L << square)) != 0) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            private int pieceAt(int square, int color) {
+                for (int i = 0; i < size; i++) {
+                    if (squares[i] == square && pieces[i] / 6 == color) {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+
+            private int childIndex(int sideToMove) {
+                int index = sideToMove;
+                for (int i = 0; i < size; i++) {
+                    index = index << 6 | squares[i];
+                }
+                return index;
+            }
+
+            /**
+             * Looks up a move that leaves the table in the table it leads to
+             *
+             * @param mover     index of the moving piece, already on its new square
+             * @param promotion type it promotes to, or null
+             * @param captured  index of the piece it takes, or -1
+             */
+            private int probeConversion(int mover, ChessPiece.PieceType promotion, int captured, int sideToMove) {
+                int count = 0;
+                for (int i = 0; i < size; i++) {
+                    if (i == captured) {
+                        continue;
+                    }
+                    subPieces[count] = i == mover && promotion != null
+                            ? pieces[i] / 6 * 6 + promotion.ordinal() : pieces[i];
+                    subSquares[count] = squares[i];
+                    count++;
+                }
+                int result = tablebases.probe(subPieces, subSquares, count, sideToMove);
+                if (result == Tablebases.NOT_FOUND) {
+                    throw new IllegalStateException("missing table below " + material);
+                }
+                return result;
+            }
+        }
+    }
+
+    private static ChessGame.TeamColor teamColor(int color) {
+        return color == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+    }
+}
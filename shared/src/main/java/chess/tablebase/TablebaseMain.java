@@ -0,0 +1,90 @@
+package chess.tablebase;
+
+import chess.ChessGame;
+import chess.Fen;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line entry point for endgame tables.
+ * <pre>
+ * TablebaseMain generate &lt;dir&gt; [material ...]   generates the tables, e.g. KQvK KRvKP
+ * TablebaseMain probe &lt;dir&gt; &lt;fen&gt;              looks the position up
+ * </pre>
+ * Without materials, generate makes every table up to {@code --pieces=N}
+ * pieces (default 4) with {@code --threads=N} threads (default every core).
+ * Tables already in the directory are kept, so an interrupted run picks up
+ * where it stopped.
+ */
+public class TablebaseMain {
+
+    public static void main(String[] args) throws IOException {
+        List<String> positional = new ArrayList<>();
+        int threads = Runtime.getRuntime().availableProcessors();
+        int pieces = Material.MAX_PIECES;
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--threads=")) {
+                    threads = Integer.parseInt(arg.substring("--threads=".length()));
+                } else if (arg.startsWith("--pieces=")) {
+                    pieces = Integer.parseInt(arg.substring("--pieces=".length()));
+                } else {
+                    positional.add(arg);
+                }
+            }
+
+            switch (positional.get(0)) {
+                case "generate" -> generate(Path.of(positional.get(1)), positional.subList(2, positional.size()),
+                        pieces, threads);
+                case "probe" -> probe(Path.of(positional.get(1)),
+                        String.join(" ", positional.subList(2, positional.size())));
+                default -> usage();
+            }
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            usage();
+        }
+    }
+
+    private static void generate(Path dir, List<String> names, int pieces, int threads) throws IOException {
+        List<Material> materials = new ArrayList<>();
+        for (String name : names) {
+            materials.add(Material.parse(name));
+        }
+        if (materials.isEmpty()) {
+            materials = Material.all(pieces);
+        }
+
+        long start = System.nanoTime();
+        TablebaseGenerator generator = new TablebaseGenerator(dir, threads);
+        for (Material material : materials) {
+            generator.generate(material, System.out::println);
+        }
+        System.out.printf("done in %.1f s with %d threads%n", (System.nanoTime() - start) / 1e9, threads);
+    }
+
+    private static void probe(Path dir, String fen) throws IOException {
+        ChessGame game = Fen.parse(fen);
+        int result = Tablebases.open(dir).probe(game);
+        System.out.println(fen);
+        if (result == Tablebases.NOT_FOUND) {
+            System.out.println("not in the tables");
+        } else if (result == Tablebases.DRAW) {
+            System.out.println("draw");
+        } else {
+            int plies = Tablebases.distanceToMate(result);
+            System.out.printf("%s, mate in %d plies%n", Tablebases.isWin(result) ? "win" : "loss", plies);
+        }
+    }
+
+    private static void usage() {
+        System.out.println("""
+                Usage:
+                  TablebaseMain generate <dir> [material ...]  generate tables, e.g. KQvK KRvKP
+                  TablebaseMain probe <dir> <fen>              look up a position
+                Options for generate: --pieces=N (default 4, when no material is given)
+                                      --threads=N (default all cores)""");
+    }
+}
@@ -0,0 +1,206 @@
+package chess.tablebase;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The endgame tables in a directory, looked up by position.
+ * <p>
+ * Results are the table bytes described in {@link Tablebase}:
+ * {@link #DRAW}, or 1 + the distance to mate in plies, odd distances being
+ * wins for the side to move. Lookups only read mapped memory, so any number
+ * of threads can probe at once.
+ */
+public final class Tablebases {
+    /** Result of a probe the tables can't answer */
+    public static final int NOT_FOUND = -1;
+    public static final int DRAW = 0;
+
+    private static final Tablebases EMPTY = new Tablebases();
+
+    // by count of each kind of piece, see key(); a table is found under its own key and its flipped one
+    private final Map<Long, Tablebase> tables = new HashMap<>();
+    private final Map<Long, Boolean> flipped = new HashMap<>();
+    private int maxPieces;
+
+    Tablebases() {
+    }
+
+    /**
+     * Maps every table file in the directory
+     *
+     * @throws IOException if the directory or one of its tables can't be read
+     */
+    public static Tablebases open(Path dir) throws IOException {
+        Tablebases tablebases = new Tablebases();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + Tablebase.EXTENSION)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                Material material;
+                try {
+                    material = Material.parse(name.substring(0, name.length() - Tablebase.EXTENSION.length()));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(file + " is not named after its material", e);
+                }
+                tablebases.add(Tablebase.open(file, material));
+            }
+        }
+        return tablebases;
+    }
+
+    /**
+     * @return tables that know nothing, for when no directory is available
+     */
+    public static Tablebases empty() {
+        return EMPTY;
+    }
+
+    void add(Tablebase table) {
+        Material material = table.getMaterial();
+        long flippedKey = key(material.flipped());
+        tables.put(flippedKey, table);
+        flipped.put(flippedKey, true);
+        // put second, so a material that is its own flip, like KPvKP, isn't looked up flipped
+        tables.put(key(material), table);
+        flipped.put(key(material), false);
+        maxPieces = Math.max(maxPieces, material.size());
+    }
+
+    /**
+     * @param material canonical material
+     */
+    public boolean contains(Material material) {
+        return material.size() == 2 || tables.containsKey(key(material));
+    }
+
+    /**
+     * @param material material with a table, either way round, or just the two kings
+     * @return longest distance to mate in its table, in plies
+     */
+    int maxDistance(Material material) {
+        return material.size() == 2 ? 0 : tables.get(key(material)).getMaxDistance();
+    }
+
+    /**
+     * @return most pieces of any table, or 0 without tables
+     */
+    public int getMaxPieces() {
+        return maxPieces;
+    }
+
+    public List<Material> getMaterials() {
+        List<Material> materials = new ArrayList<>();
+        for (Map.Entry<Long, Tablebase> table : tables.entrySet()) {
+            if (!flipped.get(table.getKey())) {
+                materials.add(table.getValue().getMaterial());
+            }
+        }
+        return materials;
+    }
+
+    /**
+     * @param game position to look up; not modified
+     * @return the table's result for the position, or {@link #NOT_FOUND} if
+     * there is no table for its material or it has castling or en passant rights
+     */
+    public int probe(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        long occupied = board.getOccupancy();
+        int count = Long.bitCount(occupied);
+        if (count > maxPieces || game.getCastlingRights() != 0 || game.getEnPassantSquare() != -1) {
+            return NOT_FOUND;
+        }
+        int[] pieces = new int[count];
+        int[] squares = new int[count];
+        for (int i = 0; i < count; i++) {
+            int square = Long.numberOfTrailingZeros(occupied);
+            occupied &= occupied - 1;
+            ChessPiece piece = board.getPiece(square);
+            pieces[i] = (piece.getTeamColor() == ChessGame.TeamColor.WHITE ? 0 : 6) + piece.getPieceType().ordinal();
+            squares[i] = square;
+        }
+        int result = probe(pieces, squares, count, game.getTeamTurn() == ChessGame.TeamColor.WHITE ? 0 : 1);
+        // only an illegal position, with the side that just moved left in check, is marked invalid
+        return result == Tablebase.INVALID ? NOT_FOUND : result;
+    }
+
+    /**
+     * @param pieces       pieces on the board in any order, as color * 6 + PieceType ordinal
+     * @param squares      square of each piece
+     * @param count        number of pieces
+     * @param sideToMove   0 for White, 1 for Black
+     * @return the table's result, or {@link #NOT_FOUND} if there is no table for the material
+     */
+    int probe(int[] pieces, int[] squares, int count, int sideToMove) {
+        if (count == 2) {
+            return DRAW;
+        }
+        long key = 0;
+        for (int i = 0; i < count; i++) {
+            key += 1L << (4 * pieces[i]);
+        }
+        Tablebase table = tables.get(key);
+        if (table == null) {
+            return NOT_FOUND;
+        }
+        boolean flip = flipped.get(key);
+        Material material = table.getMaterial();
+
+        // match each of the table's pieces with an unused piece of the same kind
+        long index = flip ? sideToMove ^ 1 : sideToMove;
+        int used = 0;
+        for (int slot = 0; slot < material.size(); slot++) {
+            int wanted = flip ? (material.piece(slot) + 6) % 12 : material.piece(slot);
+            int i = 0;
+            while ((used & (1 << i)) != 0 || pieces[i] != wanted) {
+                i++;
+            }
+            used |= 1 << i;
+            index = index << 6 | (flip ? squares[i] ^ 56 : squares[i]);
+        }
+        return table.entry(index);
+    }
+
+    /**
+     * @return true if the result is a win for the side to move
+     */
+    public static boolean isWin(int result) {
+        return result > 0 && result % 2 == 0;
+    }
+
+    /**
+     * @return true if the result is a loss for the side to move
+     */
+    public static boolean isLoss(int result) {
+        return result > 0 && result % 2 == 1 && result != Tablebase.INVALID;
+    }
+
+    /**
+     * @param result a win or loss
+     * @return plies until mate
+     */
+    public static int distanceToMate(int result) {
+        return result - 1;
+    }
+
+    /**
+     * Counts of each kind of piece, 4 bits per kind; kings included, which makes no difference
+     */
+    private static long key(Material material) {
+        long key = 0;
+        for (int i = 0; i < material.size(); i++) {
+            key += 1L << (4 * material.piece(i));
+        }
+        return key;
+    }
+}
@@ -0,0 +1,13 @@
+package model;
+
+import java.util.List;
+
+/**
+ * One line of play the engine considers, as part of a {@link PositionAnalysis}
+ *
+ * @param moves  the line in UCI form, starting with the move it is about
+ * @param score  centipawns for the side to move
+ * @param mateIn full moves to mate, negative if the side to move gets mated, 0 if not a mate
+ * @param depth  depth of the search that found the line
+ */
+public record EngineLine(List<String> moves, int score, int mateIn, int depth) {}
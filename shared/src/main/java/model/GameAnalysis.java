@@ -0,0 +1,12 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Engine verdict on a whole stored game
+ *
+ * @param whiteAccuracy average accuracy of White's moves, 0-100
+ * @param blackAccuracy average accuracy of Black's moves, 0-100
+ */
+public record GameAnalysis(int gameID, List<MoveAnalysis> moves, double whiteAccuracy, double blackAccuracy,
+                           int whiteBlunders, int blackBlunders) {}
@@ -0,0 +1,16 @@
+package model;
+
+/**
+ * Engine verdict on one move of a stored game
+ *
+ * @param ply         0 for the first move of the game, 1 for the reply, ...
+ * @param move        move played, in UCI form
+ * @param bestMove    move the engine preferred, in UCI form
+ * @param scoreBefore engine score before the move, in centipawns for the player making it
+ * @param scoreAfter  engine score after the move, for the same player
+ * @param loss        centipawns given away by the move compared to the best one
+ * @param accuracy    0-100, from the drop in winning chances the move caused
+ * @param blunder     true if the loss is big enough to count as a blunder
+ */
+public record MoveAnalysis(int ply, String move, String bestMove, int scoreBefore, int scoreAfter, int loss,
+                           double accuracy, boolean blunder) {}
@@ -0,0 +1,13 @@
+package model;
+
+import java.util.List;
+
+/**
+ * The engine's best lines in a position
+ *
+ * @param fen    position analyzed
+ * @param lines  best line first; empty if the side to move has no legal move
+ * @param nodes  positions the search visited
+ * @param millis time the search took
+ */
+public record PositionAnalysis(String fen, List<EngineLine> lines, long nodes, long millis) {}
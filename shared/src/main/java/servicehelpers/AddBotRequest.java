@@ -0,0 +1,6 @@
+package servicehelpers;
+
+/**
+ * @param thinkMillis time the bot may spend on each move, or null for the default
+ */
+public record AddBotRequest(String playerColor, int gameID, Long thinkMillis) {}
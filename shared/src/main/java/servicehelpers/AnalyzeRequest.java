@@ -0,0 +1,11 @@
+package servicehelpers;
+
+/**
+ * Position to analyze, given either as a stored game (its current position) or as a FEN string
+ *
+ * @param lines      number of engine lines wanted, or null for the default
+ * @param depth      deepest iteration to search, or null for no depth limit
+ * @param timeMillis time the search may take, or null for no time limit; with
+ *                   neither limit given, the default time applies
+ */
+public record AnalyzeRequest(Integer gameID, String fen, Integer lines, Integer depth, Long timeMillis) {}
@@ -23,7 +23,8 @@ public class UserGameCommand {
         CONNECT,
         MAKE_MOVE,
         LEAVE,
-        RESIGN
+        RESIGN,
+        CLAIM_DRAW
     }
 
     public CommandType getCommandType() {
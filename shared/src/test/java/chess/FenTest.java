@@ -0,0 +1,63 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FenTest {
+
+    @Test
+    public void roundTrip() {
+        String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b Kq - 3 17";
+        ChessGame game = Fen.parse(fen);
+
+        assertEquals(CastlingRights.WHITE_KINGSIDE | CastlingRights.BLACK_QUEENSIDE, game.getCastlingRights());
+        assertEquals(3, game.getHalfmoveClock());
+        assertEquals(17, game.getFullmoveNumber());
+        assertEquals(fen, Fen.toFen(game));
+        assertEquals(Fen.START_POSITION, Fen.toFen(new ChessGame()));
+    }
+
+    @Test
+    public void enPassantOnlyKeptWhenItCanBeTaken() throws InvalidMoveException {
+        ChessGame usable = Fen.parse("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 2");
+        ChessGame unusable = Fen.parse("4k3/8/8/3p4/8/8/8/4K3 w - d6 0 2");
+
+        assertEquals(ChessBoard.square(6, 4), usable.getEnPassantSquare());
+        assertEquals(-1, unusable.getEnPassantSquare());
+        assertEquals("4k3/8/8/3p4/8/8/8/4K3 w - - 0 2", Fen.toFen(unusable));
+
+        // the same position reached by a move gets the same key as the one read from FEN
+        ChessGame played = Fen.parse("4k3/3p4/8/4P3/8/8/8/4K3 b - - 0 1");
+        played.makeMove(ChessMove.fromUci("d7d5"));
+        assertEquals(usable, played);
+        assertEquals(usable.positionKey(), played.positionKey());
+    }
+
+    @Test
+    public void moveLogReplaysFromStartFen() throws InvalidMoveException {
+        String fen = "4k3/3p4/8/4P3/8/8/8/4K3 b - - 0 1";
+        ChessGame game = Fen.parse(fen);
+        game.makeMove(ChessMove.fromUci("d7d5"));
+        game.makeMove(ChessMove.fromUci("e5d6"));
+        ChessGame stored = new Gson().fromJson(new Gson().toJson(game), ChessGame.class);
+
+        assertEquals(fen, stored.getStartFen());
+        ChessGame replay = Fen.parse(stored.getStartFen());
+        for (ChessMove move : stored.getMoveLog()) {
+            replay.makeMove(move);
+        }
+        assertEquals(game, replay);
+        assertEquals(Fen.START_POSITION, new ChessGame().getStartFen());
+        assertTrue(new ChessGame().getMoveLog().isEmpty());
+    }
+
+    @Test
+    public void castlingRightsInferredFromBoard() {
+        ChessGame game = new ChessGame();
+        game.setBoard(Fen.parse("r3k3/8/8/8/8/8/8/4K2R w - - 0 1").getBoard());
+
+        assertEquals(CastlingRights.WHITE_KINGSIDE | CastlingRights.BLACK_QUEENSIDE, game.getCastlingRights());
+    }
+}
@@ -0,0 +1,133 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameStatusTest {
+
+    @Test
+    public void statusOfSideToMove() {
+        assertEquals(GameStatus.NORMAL, Fen.parse(Fen.START_POSITION).getStatus());
+        assertEquals(GameStatus.CHECK, Fen.parse("4k3/8/8/8/8/8/8/4RK2 b - - 0 1").getStatus());
+        assertEquals(GameStatus.CHECKMATE,
+                Fen.parse("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3").getStatus());
+        assertEquals(GameStatus.STALEMATE, Fen.parse("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1").getStatus());
+        assertEquals(GameStatus.DRAW_INSUFFICIENT_MATERIAL, Fen.parse("4k3/8/8/8/8/8/8/2B1K3 b - - 0 1").getStatus());
+        assertEquals(GameStatus.NORMAL, Fen.parse("4k3/8/8/8/8/8/8/1NB1K3 b - - 0 1").getStatus());
+    }
+
+    @Test
+    public void statusFollowsMoves() throws InvalidMoveException {
+        ChessGame game = Fen.parse("4k3/8/8/8/8/8/8/R3K3 w - - 0 1");
+        assertEquals(GameStatus.NORMAL, game.getStatus());
+
+        game.makeMove(ChessMove.fromUci("a1a8"));
+        assertEquals(GameStatus.CHECK, game.getStatus());
+        assertTrue(game.isInCheck(ChessGame.TeamColor.BLACK));
+        assertFalse(game.isInCheckmate(ChessGame.TeamColor.BLACK));
+
+        game.getBoard().addPiece(ChessPosition.of(8, 1), null);
+        assertEquals(GameStatus.DRAW_INSUFFICIENT_MATERIAL, game.getStatus());
+    }
+
+    @Test
+    public void fiftyMoveRule() throws InvalidMoveException {
+        ChessGame game = Fen.parse("4k3/8/8/8/8/8/4P3/R3K3 w - - 99 80");
+        game.makeMove(ChessMove.fromUci("a1a2"));
+        // a draw only if claimed
+        assertEquals(GameStatus.NORMAL, game.getStatus());
+        assertEquals(GameStatus.DRAW_FIFTY_MOVES, game.getClaimableDraw());
+
+        // a pawn move resets the count
+        game = Fen.parse("4k3/8/8/8/8/8/4P3/R3K3 w - - 99 80");
+        game.makeMove(ChessMove.fromUci("e2e3"));
+        assertEquals(GameStatus.NORMAL, game.getStatus());
+        assertNull(game.getClaimableDraw());
+    }
+
+    @Test
+    public void seventyFiveMoveRule() throws InvalidMoveException {
+        ChessGame game = Fen.parse("4k3/8/8/8/8/8/4P3/R3K3 w - - 149 100");
+        game.makeMove(ChessMove.fromUci("a1a2"));
+        assertEquals(GameStatus.DRAW_SEVENTY_FIVE_MOVES, game.getStatus());
+        assertNull(game.getClaimableDraw());
+
+        assertThrows(InvalidMoveException.class, () -> game.makeMove(ChessMove.fromUci("e8d8")));
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+    }
+
+    @Test
+    public void mateOnTheLastPlyIsStillMate() throws InvalidMoveException {
+        ChessGame game = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 149 100");
+        game.makeMove(ChessMove.fromUci("a1a8"));
+        assertEquals(GameStatus.CHECKMATE, game.getStatus());
+    }
+
+    @Test
+    public void threefoldRepetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game, 2);
+        assertTrue(game.isRepetition(3));
+        assertEquals(GameStatus.NORMAL, game.getStatus());
+        assertEquals(GameStatus.DRAW_REPETITION, game.getClaimableDraw());
+
+        // taking the last move back undoes the repetition
+        ChessGame copy = new ChessGame(game);
+        MoveUndo undo = new MoveUndo();
+        copy.makeMove(ChessMove.fromUci("e2e4"), undo);
+        assertFalse(copy.isRepetition(2));
+        copy.unmakeMove(undo);
+        assertTrue(copy.isRepetition(3));
+    }
+
+    @Test
+    public void fivefoldRepetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game, 3);
+        // four times: still claimable, and play can go on
+        assertEquals(GameStatus.NORMAL, game.getStatus());
+        assertEquals(GameStatus.DRAW_REPETITION, game.getClaimableDraw());
+
+        shuffleKnights(game, 1);
+        assertEquals(GameStatus.DRAW_FIVEFOLD_REPETITION, game.getStatus());
+        assertNull(game.getClaimableDraw());
+
+        assertThrows(InvalidMoveException.class, () -> game.makeMove(ChessMove.fromUci("e2e4")));
+        assertEquals(16, game.getMoveLog().size());
+    }
+
+    @Test
+    public void claimingEndsTheGame() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game, 2);
+
+        assertEquals(GameStatus.DRAW_REPETITION, game.claimDraw());
+        assertTrue(game.isGameOver());
+        assertNull(game.getClaimableDraw());
+        assertThrows(InvalidMoveException.class, () -> game.makeMove(ChessMove.fromUci("e2e4")));
+        assertThrows(InvalidMoveException.class, game::claimDraw);
+    }
+
+    @Test
+    public void nothingToClaim() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game, 1);
+
+        assertNull(game.getClaimableDraw());
+        assertThrows(InvalidMoveException.class, game::claimDraw);
+        assertFalse(game.isGameOver());
+    }
+
+    /**
+     * Knights out and back, so each round repeats the position the game was in
+     */
+    private static void shuffleKnights(ChessGame game, int rounds) throws InvalidMoveException {
+        String[] shuffle = {"g1f3", "g8f6", "f3g1", "f6g8"};
+        for (int round = 0; round < rounds; round++) {
+            for (String move : shuffle) {
+                game.makeMove(ChessMove.fromUci(move));
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LegalMoveCacheTest {
+
+    @Test
+    public void repeatedLookupsHit() {
+        LegalMoveCache cache = new LegalMoveCache(64);
+        ChessGame game = new ChessGame();
+        int knight = ChessBoard.square(1, 2);
+
+        int[] first = cache.legalMoves(game, knight);
+        int[] second = cache.legalMoves(game, knight);
+
+        assertEquals(2, first.length);
+        assertSame(first, second);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    public void sizeIsBounded() {
+        LegalMoveCache cache = new LegalMoveCache(16);
+        ChessGame game = new ChessGame();
+        for (int col = 1; col <= 8; col++) {
+            for (int row : new int[]{1, 2, 7, 8}) {
+                cache.legalMoves(game, ChessBoard.square(row, col));
+            }
+        }
+        assertTrue(cache.size() <= 16);
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    public void sharedCacheFollowsThePosition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        ChessPosition bishop = ChessPosition.of(1, 6);
+        assertTrue(game.validMoves(bishop).isEmpty());
+
+        game.makeMove(ChessMove.fromUci("e2e4"));
+        game.makeMove(ChessMove.fromUci("e7e5"));
+
+        assertEquals(5, game.validMoves(bishop).size());
+    }
+}
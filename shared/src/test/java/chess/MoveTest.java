@@ -0,0 +1,53 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveTest {
+
+    @Test
+    public void roundTrip() {
+        ChessMove promotion = ChessMove.fromUci("b7a8n");
+        int packed = Move.of(promotion);
+
+        assertEquals(ChessBoard.square(7, 2), Move.from(packed));
+        assertEquals(ChessBoard.square(8, 1), Move.to(packed));
+        assertEquals(ChessPiece.PieceType.KNIGHT, Move.promotion(packed));
+        assertEquals(promotion, Move.toChessMove(packed));
+        assertEquals("b7a8n", Move.toString(packed));
+
+        assertNull(Move.promotion(Move.of(ChessMove.fromUci("e2e4"))));
+    }
+
+    @Test
+    public void flagsDontChangeTheMove() {
+        int quiet = Move.encode(12, 28);
+        int capture = quiet | Move.CAPTURE;
+
+        assertTrue(Move.sameMove(quiet, capture));
+        assertTrue(Move.isCapture(capture));
+        assertFalse(Move.isCapture(quiet));
+        assertEquals(Move.toChessMove(quiet), Move.toChessMove(capture));
+    }
+
+    @Test
+    public void packedMovesMatchBoxedMoves() {
+        ChessGame game = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        MoveList moves = new MoveList(4);
+
+        MoveGenerator.legalMoves(game.getBoard(), game.getTeamTurn(), moves);
+
+        assertEquals(new HashSet<>(MoveGenerator.legalMoves(game.getBoard(), game.getTeamTurn())),
+                new HashSet<>(moves.toChessMoves()));
+        int captures = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            assertEquals(game.getBoard().getPiece(Move.to(move)) != null, Move.isCapture(move));
+            captures += Move.isCapture(move) ? 1 : 0;
+        }
+        assertEquals(8, captures);
+    }
+}
@@ -0,0 +1,69 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StoredFormatTest {
+    // a game saved before the bitboard board, after 1. e4
+    private static final String BASELINE_GAME = """
+            {"board":{"squares":[
+                [{"pieceColor":"WHITE","type":"ROOK"},{"pieceColor":"WHITE","type":"KNIGHT"},{"pieceColor":"WHITE","type":"BISHOP"},{"pieceColor":"WHITE","type":"QUEEN"},{"pieceColor":"WHITE","type":"KING"},{"pieceColor":"WHITE","type":"BISHOP"},{"pieceColor":"WHITE","type":"KNIGHT"},{"pieceColor":"WHITE","type":"ROOK"}],
+                [{"pieceColor":"WHITE","type":"PAWN"},{"pieceColor":"WHITE","type":"PAWN"},{"pieceColor":"WHITE","type":"PAWN"},{"pieceColor":"WHITE","type":"PAWN"},null,{"pieceColor":"WHITE","type":"PAWN"},{"pieceColor":"WHITE","type":"PAWN"},{"pieceColor":"WHITE","type":"PAWN"}],
+                [null,null,null,null,null,null,null,null],
+                [null,null,null,null,{"pieceColor":"WHITE","type":"PAWN"},null,null,null],
+                [null,null,null,null,null,null,null,null],
+                [null,null,null,null,null,null,null,null],
+                [{"pieceColor":"BLACK","type":"PAWN"},{"pieceColor":"BLACK","type":"PAWN"},{"pieceColor":"BLACK","type":"PAWN"},{"pieceColor":"BLACK","type":"PAWN"},{"pieceColor":"BLACK","type":"PAWN"},{"pieceColor":"BLACK","type":"PAWN"},{"pieceColor":"BLACK","type":"PAWN"},{"pieceColor":"BLACK","type":"PAWN"}],
+                [{"pieceColor":"BLACK","type":"ROOK"},{"pieceColor":"BLACK","type":"KNIGHT"},{"pieceColor":"BLACK","type":"BISHOP"},{"pieceColor":"BLACK","type":"QUEEN"},{"pieceColor":"BLACK","type":"KING"},{"pieceColor":"BLACK","type":"BISHOP"},{"pieceColor":"BLACK","type":"KNIGHT"},{"pieceColor":"BLACK","type":"ROOK"}]
+            ]},"currentTurn":"BLACK","isGameOver":false}""";
+
+    @Test
+    public void readsBaselineGames() throws InvalidMoveException {
+        ChessGame game = new Gson().fromJson(BASELINE_GAME, ChessGame.class);
+
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1", Fen.toFen(game));
+        assertEquals(Fen.toFen(game), game.getStartFen());
+        assertTrue(game.getMoveLog().isEmpty());
+
+        // the board works like any other: moves, keys and the status are right
+        assertEquals(Fen.parse(Fen.toFen(game)).positionKey(), game.positionKey());
+        assertEquals(GameStatus.NORMAL, game.getStatus());
+        game.makeMove(ChessMove.fromUci("e7e5"));
+        assertEquals(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN),
+                game.getBoard().getPiece(ChessPosition.of(5, 5)));
+    }
+
+    @Test
+    public void writesTheCurrentFormat() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(ChessMove.fromUci("e2e4"));
+        String json = new Gson().toJson(game);
+
+        assertTrue(json.contains("\"pieceBitboards\""));
+        assertFalse(json.contains("\"squares\""));
+        ChessGame stored = new Gson().fromJson(json, ChessGame.class);
+        assertEquals(Fen.toFen(game), Fen.toFen(stored));
+        assertEquals(game.getMoveLog(), stored.getMoveLog());
+    }
+
+    @Test
+    public void repetitionsSurviveTheRoundTrip() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        String[] shuffle = {"g1f3", "g8f6", "f3g1", "f6g8"};
+        for (int round = 0; round < 2; round++) {
+            for (String move : shuffle) {
+                game.makeMove(ChessMove.fromUci(move));
+            }
+        }
+        String json = new Gson().toJson(game);
+
+        // the key history is rebuilt from the move log, not stored
+        assertFalse(json.contains("keyHistory"));
+        assertFalse(json.contains("historyLength"));
+        ChessGame stored = new Gson().fromJson(json, ChessGame.class);
+        assertTrue(stored.isRepetition(3));
+        assertEquals(GameStatus.DRAW_REPETITION, stored.getClaimableDraw());
+    }
+}
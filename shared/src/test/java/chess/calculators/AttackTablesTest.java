@@ -0,0 +1,40 @@
+package chess.calculators;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.Fen;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AttackTablesTest {
+
+    @Test
+    public void maskSizes() {
+        int a1 = ChessBoard.square(1, 1);
+        int d4 = ChessBoard.square(4, 4);
+        int h5 = ChessBoard.square(5, 8);
+
+        assertEquals(2, Long.bitCount(AttackTables.knightAttacks(a1)));
+        assertEquals(8, Long.bitCount(AttackTables.knightAttacks(d4)));
+        assertEquals(3, Long.bitCount(AttackTables.kingAttacks(a1)));
+        assertEquals(8, Long.bitCount(AttackTables.kingAttacks(d4)));
+        assertEquals(1L << ChessBoard.square(6, 7), AttackTables.pawnAttacks(ChessGame.TeamColor.WHITE, h5));
+        assertEquals(1L << ChessBoard.square(4, 7), AttackTables.pawnAttacks(ChessGame.TeamColor.BLACK, h5));
+    }
+
+    @Test
+    public void squareAttacked() {
+        // white: king e1, rook a3, knight g5, pawn c4; black: king e8
+        ChessBoard board = Fen.parse("4k3/8/8/6N1/2P5/R7/8/4K3 w - - 0 1").getBoard();
+        ChessGame.TeamColor white = ChessGame.TeamColor.WHITE;
+
+        assertTrue(board.isSquareAttacked(ChessBoard.square(3, 8), white));  // rook along the rank
+        assertTrue(board.isSquareAttacked(ChessBoard.square(7, 6), white));  // knight
+        assertTrue(board.isSquareAttacked(ChessBoard.square(5, 2), white));  // pawn
+        assertTrue(board.isSquareAttacked(ChessBoard.square(2, 4), white));  // king
+        assertFalse(board.isSquareAttacked(ChessBoard.square(5, 3), white)); // in front of the pawn
+        assertFalse(board.isSquareAttacked(ChessBoard.square(8, 5), white));
+        assertTrue(board.isSquareAttacked(ChessBoard.square(7, 4), ChessGame.TeamColor.BLACK));
+    }
+}
@@ -0,0 +1,49 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Fen;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LazySmpSearchTest {
+
+    @Test
+    public void helpersAgreeOnForcedMate() {
+        ChessGame game = Fen.parse("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+        try (LazySmpSearch search = new LazySmpSearch(4, MaterialEvaluator::new, new TranspositionTable(4))) {
+            SearchResult result = search.search(game, 6, 5000);
+            assertEquals(4, search.getThreads());
+            assertEquals(2, result.getMateIn());
+            assertEquals(ChessMove.fromUci("c6b6"), result.getBestMove());
+        }
+    }
+
+    @Test
+    public void reachesDepthOnEverySearch() {
+        ChessGame game = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        try (LazySmpSearch search = new LazySmpSearch(3, MaterialEvaluator::new, new TranspositionTable(4))) {
+            // reused, to check a second search starts cleanly after the first stopped the helpers
+            for (int run = 0; run < 2; run++) {
+                SearchResult result = search.search(game, 4, 60_000);
+                assertTrue(result.getDepth() >= 4);
+                assertNotNull(result.getBestMove());
+                assertTrue(result.getNodes() > 0);
+            }
+        }
+    }
+
+    @Test
+    public void respectsTimeBudget() {
+        ChessGame game = new ChessGame();
+        try (LazySmpSearch search = new LazySmpSearch(4, MaterialEvaluator::new, new TranspositionTable(4))) {
+            long start = System.nanoTime();
+            SearchResult result = search.search(game, Search.MAX_PLY, 100);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            assertNotNull(result.getBestMove());
+            assertTrue(millis < 1000, "search took " + millis + " ms");
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Fen;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OpeningBookTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    public void movesWeightedByHowOftenTheyWerePlayed() throws Exception {
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        builder.addGame(new ChessGame(), moves("e2e4", "e7e5", "g1f3"), 20);
+        builder.addGame(new ChessGame(), moves("e2e4", "c7c5"), 20);
+        builder.addGame(new ChessGame(), moves("d2d4", "d7d5"), 20);
+        Path path = dir.resolve("book.bin");
+        assertEquals(6, builder.write(path, 1));
+
+        OpeningBook book = OpeningBook.open(path);
+        assertEquals(6, book.size());
+
+        List<OpeningBook.BookMove> start = book.getMoves(new ChessGame());
+        assertEquals(2, start.size());
+        assertEquals("e2e4", start.get(0).getMove().toUci());
+        assertEquals(2, start.get(0).getWeight());
+        assertEquals("d2d4", start.get(1).getMove().toUci());
+
+        ChessGame afterE4 = new ChessGame();
+        afterE4.makeMove(ChessMove.fromUci("e2e4"));
+        assertEquals(2, book.getMoves(afterE4).size());
+        assertTrue(book.getMoves(Fen.parse("4k3/8/8/8/8/8/8/4K3 w - - 0 1")).isEmpty());
+    }
+
+    @Test
+    public void rareMovesLeftOut() throws Exception {
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        builder.addGame(new ChessGame(), moves("e2e4"), 20);
+        builder.addGame(new ChessGame(), moves("e2e4"), 20);
+        builder.addGame(new ChessGame(), moves("g2g4"), 20);
+        Path path = dir.resolve("book.bin");
+        builder.write(path, 2);
+
+        List<OpeningBook.BookMove> moves = OpeningBook.open(path).getMoves(new ChessGame());
+        assertEquals(1, moves.size());
+        assertEquals("e2e4", moves.get(0).getMove().toUci());
+    }
+
+    @Test
+    public void pickFollowsWeights() throws Exception {
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        long key = new ChessGame().positionKey();
+        builder.add(key, ChessMove.fromUci("e2e4"), 3);
+        builder.add(key, ChessMove.fromUci("d2d4"), 1);
+        Path path = dir.resolve("book.bin");
+        builder.write(path, 1);
+        OpeningBook book = OpeningBook.open(path);
+
+        Random random = new Random(1);
+        int e4 = 0;
+        for (int i = 0; i < 4000; i++) {
+            if (book.pick(new ChessGame(), random).toUci().equals("e2e4")) {
+                e4++;
+            }
+        }
+        assertEquals(3000, e4, 150);
+        assertNull(OpeningBook.empty().pick(new ChessGame(), random));
+    }
+
+    @Test
+    public void findsEveryPositionAmongMany() throws Exception {
+        // keys across the whole unsigned range, so the search has to agree with the file's sort order
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        Random random = new Random(7);
+        ChessMove e4 = ChessMove.fromUci("e2e4");
+        for (int i = 0; i < 10_000; i++) {
+            builder.add(random.nextLong(), e4, 1);
+        }
+        long key = new ChessGame().positionKey();
+        builder.add(key, e4, 5);
+        Path path = dir.resolve("book.bin");
+        builder.write(path, 1);
+
+        List<OpeningBook.BookMove> moves = OpeningBook.open(path).getMoves(new ChessGame());
+        assertEquals(1, moves.size());
+        assertEquals(5, moves.get(0).getWeight());
+    }
+
+    @Test
+    public void illegalMovesIgnored() throws Exception {
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        long key = new ChessGame().positionKey();
+        builder.add(key, ChessMove.fromUci("e2e5"), 10);
+        builder.add(key, ChessMove.fromUci("e7e5"), 10);
+        Path path = dir.resolve("book.bin");
+        builder.write(path, 1);
+
+        assertTrue(OpeningBook.open(path).getMoves(new ChessGame()).isEmpty());
+    }
+
+    @Test
+    public void truncatedFileRejected() throws IOException {
+        Path path = dir.resolve("bad.bin");
+        Files.write(path, new byte[OpeningBook.ENTRY_BYTES + 3]);
+        assertThrows(IOException.class, () -> OpeningBook.open(path));
+    }
+
+    private static List<ChessMove> moves(String... uci) {
+        return Arrays.stream(uci).map(ChessMove::fromUci).toList();
+    }
+}
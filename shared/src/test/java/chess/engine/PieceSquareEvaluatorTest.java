@@ -0,0 +1,78 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.Fen;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.MoveUndo;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PieceSquareEvaluatorTest {
+
+    @Test
+    public void startingPositionIsBalanced() {
+        ChessGame game = new ChessGame();
+        assertEquals(0, new PieceSquareEvaluator().evaluate(game));
+        assertEquals(24, game.getBoard().getPhase());
+    }
+
+    @Test
+    public void mirroredPositionsScoreTheSameForTheSideToMove() {
+        PieceSquareEvaluator evaluator = new PieceSquareEvaluator();
+        int white = evaluator.evaluate(Fen.parse("4k3/8/8/8/3N4/8/PPP5/4K3 w - - 0 1"));
+        int black = evaluator.evaluate(Fen.parse("4k3/ppp5/8/3n4/8/8/8/4K3 b - - 0 1"));
+        assertTrue(white > 0);
+        assertEquals(white, black);
+    }
+
+    @Test
+    public void runningSumsFollowMakeAndUnmake() {
+        ChessGame game = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        PieceSquareEvaluator verifier = new PieceSquareEvaluator(PieceSquareEvaluator.Mode.VERIFY);
+        int start = verifier.evaluate(game);
+        Random random = new Random(7);
+        MoveUndo[] undos = new MoveUndo[60];
+        int played = 0;
+        MoveList moves = new MoveList();
+
+        // random playout covering captures, castling, en passant and promotions, checked at every step
+        while (played < undos.length) {
+            moves.clear();
+            MoveGenerator.legalMoves(game, moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            undos[played] = new MoveUndo();
+            game.makeMove(moves.get(random.nextInt(moves.size())), undos[played++]);
+            verifier.evaluate(game);
+        }
+        while (played > 0) {
+            game.unmakeMove(undos[--played]);
+            verifier.evaluate(game);
+        }
+        assertEquals(start, verifier.evaluate(game));
+    }
+
+    @Test
+    public void searchAgreesWithRescan() {
+        ChessGame game = Fen.parse("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1");
+        SearchResult result = new Search(new PieceSquareEvaluator(PieceSquareEvaluator.Mode.VERIFY))
+                .search(game, 5, 60_000);
+        assertNotNull(result.getBestMove());
+    }
+
+    @Test
+    public void rebuiltAfterDeserializing() {
+        ChessGame game = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        ChessBoard copy = new Gson().fromJson(new Gson().toJson(game.getBoard()), ChessBoard.class);
+        assertEquals(game.getBoard().getMiddlegameScore(), copy.getMiddlegameScore());
+        assertEquals(game.getBoard().getEndgameScore(), copy.getEndgameScore());
+        assertEquals(PieceSquareEvaluator.rescan(copy), PieceSquareEvaluator.rescan(game.getBoard()));
+    }
+}
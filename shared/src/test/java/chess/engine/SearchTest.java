@@ -0,0 +1,110 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Fen;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchTest {
+
+    @Test
+    public void findsMateInOne() {
+        ChessGame game = Fen.parse("r1bqkbnr/pppp1ppp/2n5/4p3/2B1P3/5Q2/PPPP1PPP/RNB1K1NR w KQkq - 0 1");
+        SearchResult result = new Search().search(game, 4, 5000);
+
+        assertEquals(ChessMove.fromUci("f3f7"), result.getBestMove());
+        assertTrue(result.isMate());
+        assertEquals(1, result.getMateIn());
+    }
+
+    @Test
+    public void findsMateInTwo() {
+        ChessGame game = Fen.parse("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+        SearchResult result = new Search().search(game, 6, 5000);
+
+        assertEquals(2, result.getMateIn());
+        assertEquals(3, result.getPrincipalVariation().size());
+    }
+
+    @Test
+    public void mateOnTheHundredthPlyIsNotADraw() {
+        // Ra8 mates and brings the halfmove clock to 100 in the same move
+        ChessGame game = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 99 1");
+        SearchResult result = new Search().search(game, 4, 5000);
+
+        assertEquals(ChessMove.fromUci("a1a8"), result.getBestMove());
+        assertTrue(result.isMate());
+        assertEquals(1, result.getMateIn());
+    }
+
+    @Test
+    public void takesHangingQueen() {
+        ChessGame game = Fen.parse("4k3/8/8/3q4/8/8/8/3RK3 w - - 0 1");
+        SearchResult result = new Search().search(game, 4, 5000);
+
+        assertEquals(ChessMove.fromUci("d1d5"), result.getBestMove());
+        assertTrue(result.getScore() > 0);
+    }
+
+    @Test
+    public void respectsTimeBudget() {
+        ChessGame game = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        List<SearchResult> iterations = new ArrayList<>();
+        long start = System.nanoTime();
+        SearchResult result = new Search().search(game, Search.MAX_PLY, 100, iterations::add);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertNotNull(result.getBestMove());
+        assertSame(iterations.get(iterations.size() - 1), result);
+        assertTrue(result.getDepth() < Search.MAX_PLY - 1);
+        assertTrue(result.getNodes() > 0);
+        // generous slack for a cold JVM; the first iteration alone takes a few milliseconds
+        assertTrue(millis < 500, "search took " + millis + " ms");
+    }
+
+    @Test
+    public void leavesPositionUntouched() {
+        ChessGame game = new ChessGame();
+        String before = Fen.toFen(game);
+        new Search().search(game, 3, 1000);
+        assertEquals(before, Fen.toFen(game));
+    }
+
+    @Test
+    public void noMoveWhenMated() {
+        ChessGame game = Fen.parse("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1");
+        SearchResult result = new Search().search(game, 3, 1000);
+
+        assertNull(result.getBestMove());
+        assertEquals(-Search.MATE, result.getScore());
+    }
+
+    @Test
+    public void searchesSeveralLines() {
+        ChessGame game = Fen.parse("4k3/8/8/3q4/8/8/8/3RK3 w - - 0 1");
+        List<SearchResult> lines = new Search().searchLines(game, 3, 4, 5000);
+
+        assertEquals(3, lines.size());
+        assertEquals(ChessMove.fromUci("d1d5"), lines.get(0).getBestMove());
+        assertNotEquals(lines.get(0).getBestMove(), lines.get(1).getBestMove());
+        assertNotEquals(lines.get(1).getBestMove(), lines.get(2).getBestMove());
+        assertNotEquals(lines.get(0).getBestMove(), lines.get(2).getBestMove());
+        assertTrue(lines.get(0).getScore() > lines.get(1).getScore());
+        assertTrue(lines.get(1).getScore() >= lines.get(2).getScore());
+    }
+
+    @Test
+    public void fewerLinesThanLegalMoves() {
+        // the king in the corner has two moves
+        ChessGame game = Fen.parse("k7/8/2K5/8/8/8/8/8 b - - 0 1");
+        assertEquals(2, new Search().searchLines(game, 5, 3, 1000).size());
+
+        ChessGame mated = Fen.parse("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1");
+        assertTrue(new Search().searchLines(mated, 3, 3, 1000).isEmpty());
+    }
+}
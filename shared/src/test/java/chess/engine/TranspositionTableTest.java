@@ -0,0 +1,95 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.Move;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranspositionTableTest {
+
+    @Test
+    public void storesAndProbes() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 0x1234_5678_9ABC_DEF0L;
+        int move = Move.encode(12, 28);
+        table.store(key, move, 5, TranspositionTable.LOWER, -Search.MATE + 3);
+
+        long entry = table.probe(key);
+        assertEquals(move, TranspositionTable.move(entry));
+        assertEquals(5, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+        assertEquals(-Search.MATE + 3, TranspositionTable.score(entry));
+
+        // same slot, different position
+        assertEquals(0, table.probe(key ^ (1L << 62)));
+        assertEquals(0.5, table.getHitRate());
+    }
+
+    @Test
+    public void rejectsBadSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(-1));
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(16_384));
+        assertEquals(1 << 16, new TranspositionTable(1).capacity());
+    }
+
+    @Test
+    public void prefersDeeperEntries() {
+        TranspositionTable table = new TranspositionTable(1);
+        long deep = 42;
+        long shallow = deep + table.capacity();
+        table.store(deep, 0, 8, TranspositionTable.EXACT, 10);
+        table.store(shallow, 0, 2, TranspositionTable.EXACT, 20);
+        assertEquals(10, TranspositionTable.score(table.probe(deep)));
+        assertEquals(0, table.probe(shallow));
+
+        // left over from an earlier search, so it goes
+        table.newSearch();
+        table.store(shallow, 0, 2, TranspositionTable.EXACT, 20);
+        assertEquals(20, TranspositionTable.score(table.probe(shallow)));
+        assertEquals(0, table.probe(deep));
+    }
+
+    @Test
+    public void fillsDuringSearch() {
+        TranspositionTable table = new TranspositionTable(1);
+        assertEquals(0, table.getFillRate());
+        ChessGame game = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        new Search(new MaterialEvaluator(), table).search(game, 4, 10_000);
+
+        assertTrue(table.getFillRate() > 0);
+        assertTrue(table.getHits() > 0);
+        table.clear();
+        assertEquals(0, table.getFillRate());
+        assertEquals(0, table.getProbes());
+    }
+
+    @Test
+    public void concurrentWritersNeverCorrupt() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(1);
+        AtomicInteger corrupted = new AtomicInteger();
+        // every writer hammers the same slots with entries whose score is derived from the key
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            int seed = t;
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < 200_000; i++) {
+                    long key = ((long) (i % 64) << 40) | (seed * 7L + i % 3) * table.capacity() | (i % 64);
+                    table.store(key, 0, i % 20, TranspositionTable.EXACT, (int) (key >>> 20));
+                    long entry = table.probe(key);
+                    if (entry != 0 && TranspositionTable.score(entry) != (int) (key >>> 20)) {
+                        corrupted.incrementAndGet();
+                    }
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertEquals(0, corrupted.get());
+    }
+}
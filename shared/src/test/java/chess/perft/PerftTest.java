@@ -0,0 +1,115 @@
+package chess.perft;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Fen;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerftTest {
+
+    @Test
+    public void startPositionCounts() {
+        ChessGame game = Fen.parse(Fen.START_POSITION);
+
+        PerftResult result = Perft.run(game, 4);
+
+        assertEquals(197_281, result.getNodes());
+        assertEquals(1_576, result.getCaptures());
+        assertEquals(469, result.getChecks());
+        assertEquals(8, result.getCheckmates());
+    }
+
+    @Test
+    public void referencePositionNodes() {
+        assertNodes(ReferencePosition.START, 4);
+        assertNodes(ReferencePosition.KIWIPETE, 3);
+        assertNodes(ReferencePosition.POSITION_3, 4);
+        assertNodes(ReferencePosition.POSITION_4, 3);
+        assertNodes(ReferencePosition.POSITION_5, 3);
+        assertNodes(ReferencePosition.POSITION_6, 3);
+    }
+
+    @Test
+    public void enPassantEscapeIsNotMate() {
+        // b2-b4 checks the king on a5, and only the en passant captures on b3 get out of it
+        ChessGame game = Fen.parse("8/3B4/p7/k2N4/p1p5/8/1P6/7K w - - 0 1");
+
+        PerftResult result = Perft.run(game, 1);
+
+        assertEquals(1, result.getChecks());
+        assertEquals(0, result.getCheckmates());
+    }
+
+    @Test
+    public void castlingAndEnPassantAreRestored() {
+        // kiwipete has castling both ways for both sides, and en passant two plies in
+        ChessGame game = Fen.parse(ReferencePosition.KIWIPETE.getFen());
+        ChessGame original = Fen.parse(ReferencePosition.KIWIPETE.getFen());
+
+        Perft.run(game, 3);
+
+        assertEquals(original, game);
+        assertEquals(Fen.toFen(original), Fen.toFen(game));
+        assertEquals(original.positionKey(), game.positionKey());
+    }
+
+    @Test
+    public void divideAddsUpToTotal() {
+        ChessGame game = Fen.parse(ReferencePosition.POSITION_6.getFen());
+
+        Map<ChessMove, Long> counts = Perft.divide(game, 3);
+
+        assertEquals(46, counts.size());
+        assertEquals(89_890, counts.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    public void gameIsRestoredAfterRun() {
+        ChessGame game = Fen.parse(ReferencePosition.POSITION_6.getFen());
+        ChessGame original = Fen.parse(ReferencePosition.POSITION_6.getFen());
+
+        Perft.run(game, 3);
+
+        assertEquals(original, game);
+        assertEquals(original.positionKey(), game.positionKey());
+    }
+
+    @Test
+    public void parallelMatchesSequential() {
+        ChessGame game = Fen.parse(ReferencePosition.POSITION_6.getFen());
+        long expected = Perft.countNodes(game, 3);
+
+        assertEquals(expected, new ParallelPerft(4, 1, null).countNodes(game, 3));
+        assertEquals(expected, new ParallelPerft(3, 2, null).countNodes(game, 3));
+        assertEquals(expected, new ParallelPerft(2, 1, new PerftHashTable(1)).countNodes(game, 3));
+    }
+
+    @Test
+    public void hashTableRejectsOtherDepths() {
+        PerftHashTable table = new PerftHashTable(1);
+        table.store(12345L, 3, 8_902);
+
+        assertEquals(8_902, table.probe(12345L, 3));
+        assertEquals(-1, table.probe(12345L, 4));
+        assertEquals(-1, table.probe(54321L, 3));
+    }
+
+    @Test
+    public void hashTableRejectsBadSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new PerftHashTable(0));
+        assertThrows(IllegalArgumentException.class, () -> new PerftHashTable(PerftHashTable.MAX_SIZE_MB + 1));
+        assertThrows(IllegalArgumentException.class, () -> new PerftHashTable(16_384));
+    }
+
+    private static void assertNodes(ReferencePosition position, int maxDepth) {
+        ChessGame game = Fen.parse(position.getFen());
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            assertEquals(position.getExpectedNodes(depth), Perft.countNodes(game, depth),
+                    position + " depth " + depth);
+        }
+    }
+}
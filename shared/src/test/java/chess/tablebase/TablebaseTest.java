@@ -0,0 +1,87 @@
+package chess.tablebase;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.engine.Search;
+import chess.engine.SearchResult;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TablebaseTest {
+    @TempDir
+    static Path dir;
+    private static Tablebases tablebases;
+
+    @BeforeAll
+    public static void generate() throws Exception {
+        TablebaseGenerator generator = new TablebaseGenerator(dir, 2);
+        generator.generate(Material.parse("KQvK"), null);
+        generator.generate(Material.parse("KRvK"), null);
+        generator.generate(Material.parse("KPvK"), null);
+        tablebases = Tablebases.open(dir);
+    }
+
+    @Test
+    public void longestMatesMatchKnownValues() throws Exception {
+        // mate in 10 and 16 moves, counted from the losing side to move
+        assertEquals(20, Tablebase.open(dir.resolve("KQvK.tbl"), Material.parse("KQvK")).getMaxDistance());
+        assertEquals(32, Tablebase.open(dir.resolve("KRvK.tbl"), Material.parse("KRvK")).getMaxDistance());
+        // needed for KPvK's under-promotions
+        assertTrue(Files.exists(dir.resolve("KNvK.tbl")));
+    }
+
+    @Test
+    public void probeKnownPositions() {
+        assertEquals(1, tablebases.probe(Fen.parse("8/8/8/8/8/8/1QK5/k7 b - - 0 1")), "checkmated");
+        assertEquals(2, tablebases.probe(Fen.parse("8/8/8/8/8/1Q6/2K5/k7 w - - 0 1")), "mate in one");
+        assertEquals(Tablebases.DRAW, tablebases.probe(Fen.parse("8/8/8/8/8/8/1Q6/k6K b - - 0 1")),
+                "the queen can be taken");
+        // colors flipped: looked up in KQvK
+        assertEquals(1, tablebases.probe(Fen.parse("8/8/8/8/8/8/1qk5/K7 w - - 0 1")));
+
+        int kingInFront = tablebases.probe(Fen.parse("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1"));
+        assertTrue(Tablebases.isWin(kingInFront));
+        assertEquals(Tablebases.DRAW, tablebases.probe(Fen.parse("4k3/4P3/4K3/8/8/8/8/8 b - - 0 1")), "stalemate");
+        assertEquals(Tablebases.DRAW, tablebases.probe(Fen.parse("7k/8/6K1/7P/8/8/8/8 b - - 0 1")),
+                "rook pawn");
+
+        assertEquals(Tablebases.NOT_FOUND, tablebases.probe(Fen.parse("4k3/8/8/8/8/8/8/R3K2R w - - 0 1")));
+        assertEquals(Tablebases.NOT_FOUND, tablebases.probe(Fen.parse("4k3/8/8/8/8/8/8/R3K3 w Q - 0 1")),
+                "castling rights aren't in the tables");
+    }
+
+    @Test
+    public void sameTablesWithAnyNumberOfThreads(@TempDir Path other) throws Exception {
+        new TablebaseGenerator(other, 1).generate(Material.parse("KRvK"), null);
+        assertArrayEquals(Files.readAllBytes(dir.resolve("KRvK.tbl")), Files.readAllBytes(other.resolve("KRvK.tbl")));
+    }
+
+    @Test
+    public void searchPlaysPerfectEndgames() {
+        ChessGame game = Fen.parse("8/8/8/4k3/8/8/8/R3K3 w - - 0 1");
+        int result = tablebases.probe(game);
+        assertTrue(Tablebases.isWin(result));
+
+        Search search = new Search();
+        search.setTablebases(tablebases);
+        SearchResult searched = search.search(game, 2, 10_000);
+        assertEquals(Search.MATE - Tablebases.distanceToMate(result), searched.getScore());
+    }
+
+    @Test
+    public void materialNames() {
+        assertEquals("KQvK", Material.parse("KvKQ").canonical().getName());
+        assertEquals("KRPvK", Material.parse("KPRvK").getName());
+        assertEquals("KNvKB", Material.parse("KBvKN").canonical().getName());
+        assertEquals(5, Material.all(3).size());
+        assertTrue(Material.all(4).contains(Material.parse("KQvKR")));
+        assertFalse(Material.all(4).contains(Material.parse("KvKQR")));
+        assertThrows(IllegalArgumentException.class, () -> Material.parse("KQRvKR"));
+    }
+}